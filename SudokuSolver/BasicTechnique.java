@@ -0,0 +1,84 @@
+//the techniques of the board described in the README, from the least complex to the most complex
+public enum BasicTechnique implements Technique {
+    //if there's only one possibility for a case it must be that one
+    SOLE_CANDIDATE("sole candidate", 10) {
+        @Override
+        public boolean apply (SudokuBoard board) {
+            return board.soleCandidate();
+        }
+    },
+    //if one number can only be at one spot of a row, column or box, it has to be in said spot
+    UNIQUE_CANDIDATE("unique candidate", 20) {
+        @Override
+        public boolean apply (SudokuBoard board) {
+            return board.uniqueCandidate();
+        }
+    },
+    //clear rows, columns and boxes using the dependencies between them
+    BLOCK_INTERACTIONS("block interactions", 30) {
+        @Override
+        public boolean apply (SudokuBoard board) {
+            return board.blockInteractions();
+        }
+    },
+    //purge using naked and hidden subsets
+    SUBSET("subset", 40) {
+        @Override
+        public boolean apply (SudokuBoard board) {
+            return board.subset();
+        }
+    },
+    //X-Wing, Swordfish and Jellyfish, with or without fins
+    FISH("fish", 50) {
+        @Override
+        public boolean apply (SudokuBoard board) {
+            return board.fish();
+        }
+    },
+    //a case with two possibilities and two cases it sees that share one of them each
+    XY_WING("XY-Wing", 60) {
+        @Override
+        public boolean apply (SudokuBoard board) {
+            return board.xyWing();
+        }
+    },
+    //the same with a case of three possibilities in the middle
+    XYZ_WING("XYZ-Wing", 70) {
+        @Override
+        public boolean apply (SudokuBoard board) {
+            return board.xyzWing();
+        }
+    },
+    //two colours along the strong links of one number
+    COLORING("simple coloring", 80) {
+        @Override
+        public boolean apply (SudokuBoard board) {
+            return board.coloring();
+        }
+    },
+    //alternating inference chains over the strong and weak links of every number
+    CHAINS("chains", 90) {
+        @Override
+        public boolean apply (SudokuBoard board) {
+            return board.chains();
+        }
+    };
+
+    private final String name;
+    private final int cost;
+
+    BasicTechnique (String name, int cost) {
+        this.name = name;
+        this.cost = cost;
+    }
+
+    @Override
+    public String getName () {
+        return name;
+    }
+
+    @Override
+    public int getCost () {
+        return cost;
+    }
+}
@@ -0,0 +1,496 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+//streams puzzles one line at a time and writes one line back for each of them
+public class BatchSolver {
+    //appended to the board when it has no solution
+    static final String UNSOLVED = " unsolved";
+    //written instead of a board when the line is not a puzzle
+    static final String INVALID = "invalid";
+    //written instead of a board when dancing links is given a 16x16 or 25x25 puzzle, its matrix only fits 9x9
+    static final String NINE_ONLY = "invalid, dlx only solves 9x9 puzzles";
+    //how many lines a worker solves at once, big enough that handing out work costs nothing
+    static final int CHUNK_LINES = 512;
+    //how many chunks each worker can have waiting before we stop reading, this bounds the memory
+    static final int CHUNKS_PER_WORKER = 4;
+    //how much of a mapped file a worker solves at once, about as many puzzles as a chunk of lines
+    static final long CHUNK_BYTES = CHUNK_LINES * 82L;
+    //counting stops at 2 solutions, enough to tell a puzzle with one solution from the others
+    static final int COUNT_LIMIT = 2;
+
+    //the way every puzzle gets solved
+    public enum Engine {
+        //the deductive techniques of SudokuSolver, with a search when they get stuck
+        TECHNIQUES,
+        //the exact cover search of DancingLinksSolver
+        DANCING_LINKS
+    }
+
+    private final int workers;
+    private final Engine engine;
+    //let every worker reorder the techniques by how well they do on the input
+    private boolean adaptive = false;
+    //count the solutions of every puzzle up to COUNT_LIMIT instead of solving it
+    private boolean counting = false;
+    //write how hard every puzzle is after it, only the techniques engine grades
+    private boolean grading = false;
+    //shared by every worker, null when nobody asked for metrics
+    private TechniqueMetrics metrics = null;
+    //shared by every worker, null when puzzles are always solved from scratch
+    private SolutionCache cache = null;
+    private long puzzles = 0;
+    private long solved = 0;
+
+    public BatchSolver () {
+        this(1);
+    }
+
+    public BatchSolver (int workers) {
+        this(workers, Engine.TECHNIQUES);
+    }
+
+    //with more than one worker, chunks of lines are solved in parallel and written back in input order
+    public BatchSolver (int workers, Engine engine) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Must have at least one worker");
+        }
+        this.workers = workers;
+        this.engine = engine;
+    }
+
+    public void setAdaptive (boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    //write every puzzle followed by how many solutions it has, 0, 1 or 2 for two or more, instead of its solution
+    public void setCounting (boolean counting) {
+        this.counting = counting;
+    }
+
+    //write every puzzle followed by its grade instead of its solution, separated by tabs, see PuzzleGrader.Grade
+    public void setGrading (boolean grading) {
+        this.grading = grading;
+    }
+
+    //look every puzzle up in the cache before solving it, only 9x9 puzzles are cached
+    public void setCache (SolutionCache cache) {
+        this.cache = cache;
+    }
+
+    //add what the techniques did on every puzzle to the metrics, only the techniques engine records anything
+    public void setMetrics (TechniqueMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    //solve every line of the reader and write the results in the same order
+    public void run (BufferedReader reader, BufferedWriter writer) throws IOException {
+        ExecutorService pool = workers > 1 ? Executors.newFixedThreadPool(workers) : null;
+        //chunks being solved, the oldest one is always the next to be written
+        ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<>();
+        try {
+            Chunk chunk = new Chunk();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                //skip blank lines so trailing newlines don't count as puzzles
+                if (line.isEmpty()) {
+                    continue;
+                }
+                chunk.add(line);
+                if (chunk.isFull()) {
+                    submit(chunk, pool, inFlight, writer);
+                    chunk = new Chunk();
+                }
+            }
+            if (chunk.size > 0) {
+                submit(chunk, pool, inFlight, writer);
+            }
+            //write whatever is still being solved
+            while (!inFlight.isEmpty()) {
+                write(await(inFlight.poll()), writer);
+            }
+            writer.flush();
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    //solve every puzzle of a mapped file, each worker takes whole regions of the file
+    public void run (MappedPuzzleReader reader, BufferedWriter writer) throws IOException {
+        ExecutorService pool = workers > 1 ? Executors.newFixedThreadPool(workers) : null;
+        ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<>();
+        try {
+            for (MappedPuzzleReader.Region region : reader.splitBytes(CHUNK_BYTES)) {
+                submit(new Chunk(region), pool, inFlight, writer);
+            }
+            while (!inFlight.isEmpty()) {
+                write(await(inFlight.poll()), writer);
+            }
+            writer.flush();
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    //hand the chunk to a worker, or solve it right away when we have no pool
+    private void submit (Chunk chunk, ExecutorService pool, ArrayDeque<Future<Chunk>> inFlight,
+                         BufferedWriter writer) throws IOException {
+        if (pool == null) {
+            write(chunk.call(), writer);
+            return;
+        }
+        inFlight.add(pool.submit(chunk));
+        //backpressure, wait for the oldest chunk before reading any further
+        if (inFlight.size() >= workers * CHUNKS_PER_WORKER) {
+            write(await(inFlight.poll()), writer);
+        }
+    }
+
+    private void write (Chunk chunk, BufferedWriter writer) throws IOException {
+        writer.append(chunk.output);
+        puzzles += chunk.size;
+        solved += chunk.solved;
+    }
+
+    private static Chunk await (Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a worker");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    //a block of consecutive lines, or a region of a mapped file, that one worker solves on its own
+    private class Chunk implements Callable<Chunk> {
+        final String[] lines;
+        final MappedPuzzleReader.Region region;
+        int size = 0;
+        int solved = 0;
+        final StringBuilder output = new StringBuilder(CHUNK_LINES * 92);
+        //the exact cover matrix, or the technique order, is reused for every puzzle of the chunk
+        DancingLinksSolver links;
+        TechniqueScheduler scheduler;
+        SolutionCounter counter;
+        PuzzleGrader grader;
+
+        Chunk () {
+            lines = new String[CHUNK_LINES];
+            region = null;
+        }
+
+        Chunk (MappedPuzzleReader.Region region) {
+            lines = null;
+            this.region = region;
+        }
+
+        void add (String line) {
+            lines[size] = line;
+            size++;
+        }
+
+        boolean isFull () {
+            return size == CHUNK_LINES;
+        }
+
+        @Override
+        public Chunk call () throws IOException {
+            if (engine == Engine.DANCING_LINKS) {
+                links = new DancingLinksSolver();
+            } else if (counting) {
+                counter = new SolutionCounter();
+            } else {
+                scheduler = TechniqueScheduler.standard();
+                //grades count steps in the order of the scheduler, so it cannot be reordered while grading
+                scheduler.setAdaptive(adaptive && !grading);
+                scheduler.setMetrics(metrics);
+                if (grading) {
+                    grader = new PuzzleGrader(scheduler);
+                }
+            }
+            if (region != null && links != null) {
+                region.forEachLine((buffer, offset, length) -> {
+                    output.append(solveLinks(buffer, offset, length)).append(System.lineSeparator());
+                    size++;
+                });
+                return this;
+            }
+            if (region != null) {
+                region.forEachPuzzle(board -> {
+                    output.append(solveBoard(board)).append(System.lineSeparator());
+                    size++;
+                });
+                return this;
+            }
+            for (int i = 0; i < size; i++) {
+                output.append(solveLine(lines[i])).append(System.lineSeparator());
+                //let go of the input as soon as it is solved
+                lines[i] = null;
+            }
+            return this;
+        }
+
+        //solve a single puzzle line and return what should be written for it
+        private String solveLine (String line) {
+            if (links != null) {
+                return solveLinks(line.trim());
+            }
+            SudokuBoard board;
+            try {
+                board = new SudokuBoard(line.trim());
+            } catch (IllegalArgumentException e) {
+                return INVALID;
+            }
+            return solveBoard(board);
+        }
+
+        //solve the line with dancing links, the puzzle itself is written back when it has no solution
+        private String solveLinks (String line) {
+            if (line.length() != 81 && BoardGeometry.isBoard(line.length())) {
+                return NINE_ONLY;
+            }
+            if (cache != null && !counting) {
+                return cached(line, () -> links.solve(line));
+            }
+            if (counting) {
+                try {
+                    return counted(line, links.countSolutions(line, COUNT_LIMIT));
+                } catch (IllegalArgumentException e) {
+                    return INVALID;
+                }
+            }
+            String solution;
+            try {
+                solution = links.solve(line);
+            } catch (IllegalArgumentException e) {
+                return INVALID;
+            }
+            if (solution == null) {
+                return line + UNSOLVED;
+            }
+            solved++;
+            return solution;
+        }
+
+        //same as solveLinks(String) but for a line of a mapped file, only unsolved puzzles become strings
+        private String solveLinks (ByteBuffer buffer, int offset, int length) {
+            if (length != 81) {
+                return BoardGeometry.isBoard(length) ? NINE_ONLY : INVALID;
+            }
+            if (counting || cache != null) {
+                return solveLinks(line(buffer, offset));
+            }
+            String solution;
+            try {
+                solution = links.solve(buffer, offset);
+            } catch (IllegalArgumentException e) {
+                return INVALID;
+            }
+            if (solution == null) {
+                return line(buffer, offset) + UNSOLVED;
+            }
+            solved++;
+            return solution;
+        }
+
+        //the 81 characters of a puzzle in a mapped file
+        private String line (ByteBuffer buffer, int offset) {
+            byte[] puzzle = new byte[81];
+            for (int i = 0; i < 81; i++) {
+                puzzle[i] = buffer.get(offset + i);
+            }
+            return new String(puzzle, StandardCharsets.US_ASCII);
+        }
+
+        //the solution of the puzzle from the cache, the solver solves the puzzle when the cache does not have it
+        private String cached (String puzzle, Supplier<String> solver) {
+            String solution;
+            try {
+                solution = cache.solve(puzzle, solver);
+            } catch (IllegalArgumentException e) {
+                return INVALID;
+            }
+            if (solution == null) {
+                return puzzle + UNSOLVED;
+            }
+            solved++;
+            return solution;
+        }
+
+        //the puzzle followed by its number of solutions, a puzzle with exactly one counts as solved
+        private String counted (String puzzle, int count) {
+            if (count == 1) {
+                solved++;
+            }
+            return puzzle + " " + count;
+        }
+
+        //solve the board and return what should be written for it, a null board was not a puzzle
+        private String solveBoard (SudokuBoard board) {
+            if (board == null) {
+                return INVALID;
+            }
+            if (counter != null) {
+                return counted(board.toLine(), counter.count(board, COUNT_LIMIT));
+            }
+            if (grader != null) {
+                String puzzle = board.toLine();
+                PuzzleGrader.Grade grade = grader.grade(board);
+                if (grade.isSolved()) {
+                    solved++;
+                }
+                return puzzle + "\t" + grade.toLine();
+            }
+            if (cache != null && board.getSize() == 9) {
+                //a miss solves the board we already parsed rather than parsing its canonical form
+                return cached(board.toLine(), () -> {
+                    new SudokuSolver(board, false, scheduler).solve();
+                    return board.isSolved() ? board.toLine() : null;
+                });
+            }
+            new SudokuSolver(board, false, scheduler).solve();
+            if (board.isSolved()) {
+                solved++;
+                return board.toLine();
+            }
+            return board.toLine() + UNSOLVED;
+        }
+    }
+
+    //one line telling how many puzzles were solved and how fast
+    String summary (long nanos) {
+        double seconds = nanos / 1e9;
+        return String.format("%s %d/%d puzzles in %.3f s (%.1f puzzles/s)",
+                counting ? "unique" : "solved", solved, puzzles, seconds, seconds > 0 ? puzzles / seconds : 0);
+    }
+
+    //reads puzzles from standard input, writes the solutions to standard output and the summary to standard error
+    //--threads n sets the number of workers, it defaults to one per processor
+    //--file path maps the puzzle file into memory instead of reading standard input
+    //--engine dlx solves with dancing links instead of the techniques, to compare the two, --engine techniques is the default
+    //--count writes how many solutions every puzzle has instead of solving it, stopping at 2
+    //--grade writes the rating, the hardest technique and the steps of every technique after every puzzle
+    //--cache n remembers the solutions of the last n puzzles, also for puzzles that are the same up to a symmetry
+    //--adaptive lets the techniques be reordered by how many possibilities they remove per microsecond
+    //--metrics path writes what every technique did to the file, every 10 seconds and once done
+    //--metrics-format prometheus writes the Prometheus text format instead of JSON, --metrics-format json is the default
+    //--metrics-every s changes how many seconds there are between two writes
+    //the engine named by --engine, a name that is not one of them is an error rather than the default
+    private static Engine engine (String name) {
+        switch (name) {
+            case "techniques":
+                return Engine.TECHNIQUES;
+            case "dlx":
+                return Engine.DANCING_LINKS;
+            default:
+                throw new IllegalArgumentException("--engine must be techniques or dlx, not " + name);
+        }
+    }
+
+    //the format named by --metrics-format, a name that is not one of them is an error rather than the default
+    private static TechniqueMetrics.Format metricsFormat (String name) {
+        switch (name) {
+            case "json":
+                return TechniqueMetrics.Format.JSON;
+            case "prometheus":
+                return TechniqueMetrics.Format.PROMETHEUS;
+            default:
+                throw new IllegalArgumentException("--metrics-format must be json or prometheus, not " + name);
+        }
+    }
+
+    public static void main (String[] args) throws IOException {
+        int workers = Runtime.getRuntime().availableProcessors();
+        Engine engine = Engine.TECHNIQUES;
+        boolean adaptive = false;
+        boolean counting = false;
+        boolean grading = false;
+        int cacheSize = 0;
+        Path file = null;
+        Path metricsFile = null;
+        TechniqueMetrics.Format metricsFormat = TechniqueMetrics.Format.JSON;
+        long metricsEvery = 10;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                workers = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--file") && i + 1 < args.length) {
+                file = Paths.get(args[++i]);
+            } else if (args[i].equals("--engine") && i + 1 < args.length) {
+                engine = engine(args[++i]);
+            } else if (args[i].equals("--cache") && i + 1 < args.length) {
+                cacheSize = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--grade")) {
+                grading = true;
+            } else if (args[i].equals("--count")) {
+                counting = true;
+            } else if (args[i].equals("--adaptive")) {
+                adaptive = true;
+            } else if (args[i].equals("--metrics") && i + 1 < args.length) {
+                metricsFile = Paths.get(args[++i]);
+            } else if (args[i].equals("--metrics-format") && i + 1 < args.length) {
+                metricsFormat = metricsFormat(args[++i]);
+            } else if (args[i].equals("--metrics-every") && i + 1 < args.length) {
+                metricsEvery = Long.parseLong(args[++i]);
+            }
+        }
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+        BatchSolver batch = new BatchSolver(workers, engine);
+        batch.setAdaptive(adaptive);
+        batch.setCounting(counting);
+        batch.setGrading(grading);
+        SolutionCache cache = cacheSize > 0 ? new SolutionCache(cacheSize) : null;
+        batch.setCache(cache);
+        MetricsReporter reporter = null;
+        if (metricsFile != null) {
+            TechniqueMetrics metrics = new TechniqueMetrics();
+            batch.setMetrics(metrics);
+            reporter = new MetricsReporter(metrics, metricsFile, metricsFormat, metricsEvery, TimeUnit.SECONDS);
+        }
+        long start = System.nanoTime();
+        try {
+            if (file != null) {
+                try (MappedPuzzleReader reader = new MappedPuzzleReader(file)) {
+                    batch.run(reader, writer);
+                }
+            } else {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(System.in), 1 << 16);
+                batch.run(reader, writer);
+            }
+        } finally {
+            if (reporter != null) {
+                reporter.close();
+            }
+        }
+        System.err.println(batch.summary(System.nanoTime() - start));
+        if (cache != null) {
+            System.err.println(cache.summary());
+        }
+    }
+}
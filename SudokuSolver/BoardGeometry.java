@@ -0,0 +1,152 @@
+import java.util.Arrays;
+
+//the shape of a board, which cases make up every row, column and box, built once and shared by every board
+//houses are numbered rows first, then columns, then boxes, and a position is the place of a case inside its house:
+//x for a row, y for a column and x + boxSize*y inside a box, the same positions the entry masks of the board use
+final class BoardGeometry {
+    //the usual 9x9 board
+    static final BoardGeometry NINE = new BoardGeometry(3);
+    //the biggest box, the numbers and the positions of a house have to fit in the bits of an int
+    static final int MAX_BOX_SIZE = 5;
+    //the other sizes are only built once a board of that size shows up
+    private static final BoardGeometry[] BY_BOX_SIZE = new BoardGeometry[MAX_BOX_SIZE + 1];
+
+    //side of a box, the board has boxSize * boxSize cases per side
+    final int boxSize;
+    final int size;
+    final int cells;
+    final int houses;
+
+    //the cases of every house, in position order
+    final int[][] houseCells;
+    //the row, column and box of every case, and its position in each of them
+    final int[][] cellHouses;
+    final int[][] cellPositions;
+    //the row, column and box of every case as a mask with bit h set for house h, null past 64 houses
+    final long[] cellHouseMask;
+    //every other case that shares a house with the case, 20 of them on a 9x9 board
+    final int[][] peers;
+    //the positions in the first house of the cases it shares with the second one, 0 if they do not meet
+    final int[][] shared;
+    //the houses that cross a house on boxSize cases, the lines through a box or the boxes along a line
+    final int[][] crossing;
+
+    private BoardGeometry (int boxSize) {
+        this.boxSize = boxSize;
+        size = boxSize * boxSize;
+        cells = size * size;
+        houses = 3 * size;
+        houseCells = new int[houses][size];
+        cellHouses = new int[cells][3];
+        cellPositions = new int[cells][3];
+        for (int index = 0; index < cells; index++) {
+            int x = index % size;
+            int y = index / size;
+            int box = x / boxSize + boxSize * (y / boxSize);
+            int boxPosition = x % boxSize + boxSize * (y % boxSize);
+            place(index, 0, y, x);
+            place(index, 1, size + x, y);
+            place(index, 2, 2 * size + box, boxPosition);
+        }
+        cellHouseMask = houses <= 64 ? new long[cells] : null;
+        for (int index = 0; index < cells && houses <= 64; index++) {
+            for (int house : cellHouses[index]) {
+                cellHouseMask[index] |= 1L << house;
+            }
+        }
+        shared = new int[houses][houses];
+        for (int house = 0; house < houses; house++) {
+            for (int position = 0; position < size; position++) {
+                for (int other : cellHouses[houseCells[house][position]]) {
+                    if (other != house) {
+                        shared[house][other] |= 1 << position;
+                    }
+                }
+            }
+        }
+        crossing = new int[houses][];
+        for (int house = 0; house < houses; house++) {
+            int count = 0;
+            int[] found = new int[houses];
+            for (int other = 0; other < houses; other++) {
+                if (Integer.bitCount(shared[house][other]) == boxSize) {
+                    found[count++] = other;
+                }
+            }
+            crossing[house] = Arrays.copyOf(found, count);
+        }
+        peers = new int[cells][];
+        for (int index = 0; index < cells; index++) {
+            boolean[] peer = new boolean[cells];
+            for (int house : cellHouses[index]) {
+                for (int other : houseCells[house]) {
+                    peer[other] = other != index;
+                }
+            }
+            int count = 0;
+            int[] found = new int[cells];
+            for (int other = 0; other < cells; other++) {
+                if (peer[other]) {
+                    found[count++] = other;
+                }
+            }
+            peers[index] = Arrays.copyOf(found, count);
+        }
+    }
+
+    //the geometry of boards with boxes of boxSize by boxSize cases, every board built asks for one so this takes no lock
+    //once the geometry exists, every field is final so a geometry read without the lock is always fully built
+    static BoardGeometry of (int boxSize) {
+        if (boxSize < 2 || boxSize > MAX_BOX_SIZE) {
+            throw new IllegalArgumentException("Boxes must have a side from 2 to " + MAX_BOX_SIZE);
+        }
+        if (boxSize == 3) {
+            return NINE;
+        }
+        BoardGeometry geometry = BY_BOX_SIZE[boxSize];
+        return geometry != null ? geometry : build(boxSize);
+    }
+
+    //only the first board of a size builds its geometry, the lock keeps two threads from building it twice
+    private static synchronized BoardGeometry build (int boxSize) {
+        if (BY_BOX_SIZE[boxSize] == null) {
+            BY_BOX_SIZE[boxSize] = new BoardGeometry(boxSize);
+        }
+        return BY_BOX_SIZE[boxSize];
+    }
+
+    //the geometry of boards with that many cases, 81 for the usual board, 256 for 16x16 or 625 for 25x25
+    //whether a line of that many cases is a board of one of the sizes
+    static boolean isBoard (int cells) {
+        for (int boxSize = 2; boxSize <= MAX_BOX_SIZE; boxSize++) {
+            if (boxSize * boxSize * boxSize * boxSize == cells) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static BoardGeometry forCells (int cells) {
+        for (int boxSize = 2; boxSize <= MAX_BOX_SIZE; boxSize++) {
+            if (boxSize * boxSize * boxSize * boxSize == cells) {
+                return of(boxSize);
+            }
+        }
+        throw new IllegalArgumentException("Must input a string of 81 characters, or 16, 256 or 625 for other sizes");
+    }
+
+    //the kind-th house of the case (0 row, 1 column, 2 box) is house, where the case sits at position
+    private void place (int index, int kind, int house, int position) {
+        houseCells[house][position] = index;
+        cellHouses[index][kind] = house;
+        cellPositions[index][kind] = position;
+    }
+
+    int row (int y) {
+        return y;
+    }
+
+    int column (int x) {
+        return size + x;
+    }
+}
@@ -0,0 +1,54 @@
+//the smallest form of a 9x9 puzzle under the symmetries that keep it a sudoku: relabelling the numbers, swapping bands,
+//rows inside a band, stacks, columns inside a stack, and transposing, two puzzles that are the same up to these
+//get the same canonical form and their solutions are the same up to the same transformation
+//the form is the smallest line with empty cases as 0 and the numbers relabelled in the order they first show up,
+//a Canonicalizer finds it and keeps the transformation so lines can go back and forth between the two orientations
+public final class CanonicalForm {
+    private static final int SIZE = 9;
+    private static final int CASES = 81;
+
+    //the canonical puzzle, with . for empty cases like the input
+    private final String puzzle;
+    //where every case of the original puzzle goes in the canonical one
+    private final int[] caseMap;
+    //the canonical number of every original number, at index number
+    private final int[] labels;
+
+    CanonicalForm (String puzzle, int[] caseMap, int[] labels) {
+        this.puzzle = puzzle;
+        this.caseMap = caseMap;
+        this.labels = labels;
+    }
+
+    //find the canonical form of an 81 character puzzle, reuse a Canonicalizer instead when there are many
+    //null for puzzles with so many symmetries that finding it is not worth it, see Canonicalizer.MAX_TIED
+    public static CanonicalForm of (String puzzle) {
+        return new Canonicalizer().canonicalize(puzzle);
+    }
+
+    public String getPuzzle () {
+        return puzzle;
+    }
+
+    //turn a line of the original orientation, like a solution, into the canonical orientation
+    public String toCanonical (String line) {
+        char[] cases = new char[CASES];
+        for (int i = 0; i < CASES; i++) {
+            cases[caseMap[i]] = SudokuBoard.symbol(labels[SudokuBoard.number(line.charAt(i))]);
+        }
+        return new String(cases);
+    }
+
+    //turn a line of the canonical orientation, like the solution of the canonical puzzle, back into the original one
+    public String fromCanonical (String line) {
+        int[] original = new int[SIZE + 1];
+        for (int number = 0; number <= SIZE; number++) {
+            original[labels[number]] = number;
+        }
+        char[] cases = new char[CASES];
+        for (int i = 0; i < CASES; i++) {
+            cases[i] = SudokuBoard.symbol(original[SudokuBoard.number(line.charAt(caseMap[i]))]);
+        }
+        return new String(cases);
+    }
+}
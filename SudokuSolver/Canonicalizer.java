@@ -0,0 +1,435 @@
+import java.util.Arrays;
+
+//finds the canonical form of 9x9 puzzles, see CanonicalForm
+//the transformations are built one canonical row at a time, only keeping the ones whose rows so far give the smallest
+//prefix, the stacks and the columns inside them are only put in order as far as the rows so far tell them apart, so
+//stacks or columns that are still the same, like empty ones, do not each need a transformation of their own
+//at most MAX_TIED transformations are kept, a puzzle that needs more, like a nearly full one, gets no canonical form
+//the transformations live in flat int arrays that are reused, so use one canonicalizer per thread
+public class Canonicalizer {
+    private static final int SIZE = 9;
+    private static final int CASES = 81;
+    //how many transformations can tie for the smallest prefix before we give up, about 800 kilobytes of them
+    static final int MAX_TIED = 1 << 12;
+    //a transformation is stored as STRIDE ints: whether the grid is transposed, the original column of every canonical
+    //column, 1 for every canonical column that starts a group of columns the rows so far cannot tell apart, the same
+    //for every canonical stack, the original row of every canonical row, the label of every number and the next label
+    private static final int TRANSPOSED = 0;
+    private static final int COLUMNS = 1;
+    private static final int GROUPS = COLUMNS + SIZE;
+    private static final int STACK_GROUPS = GROUPS + SIZE;
+    private static final int ROWS = STACK_GROUPS + 3;
+    private static final int LABELS = ROWS + SIZE;
+    private static final int NEXT_LABEL = LABELS + SIZE + 1;
+    private static final int STRIDE = NEXT_LABEL + 1;
+    //stands for a number without a label while the stacks are put in order, it is bigger than every label
+    private static final int NEW = SIZE + 1;
+
+    //the puzzle and its transpose
+    private final int[][] grids = new int[2][CASES];
+    //the transformations that give the smallest prefix so far, and the ones being built from them
+    private int[] current = new int[64 * STRIDE];
+    private int[] next = new int[64 * STRIDE];
+    private int currentCount;
+    private int nextCount;
+    //whether a transformation tying for the smallest prefix did not fit in next
+    private boolean full;
+    //the smallest canonical row found so far for the row being picked, MAX_VALUE where nothing was found yet
+    private final int[] bestLine = new int[SIZE];
+    //the row being built: its canonical row, its columns in canonical order and where its groups of columns and of
+    //stacks start, newRuns is 1 on the first new number of a group of columns and 2 on the new numbers after it
+    private final int[] line = new int[SIZE];
+    private final int[] columns = new int[SIZE];
+    private final int[] groups = new int[SIZE];
+    private final int[] stackGroups = new int[3];
+    private final int[] newRuns = new int[SIZE];
+    //the runs of new numbers, or of stacks holding new numbers, whose order gives other labels so every order is tried
+    //a run is first and last + 1 column, or stack when forkStacks is set
+    private final int[] forkStarts = new int[SIZE];
+    private final int[] forkEnds = new int[SIZE];
+    private final boolean[] forkStacks = new boolean[SIZE];
+    private int forkCount;
+    //how many givens every row, column, box and number has, for the fingerprint
+    private final int[] rowCounts = new int[SIZE];
+    private final int[] columnCounts = new int[SIZE];
+    private final int[] boxCounts = new int[SIZE];
+    private final int[] numberCounts = new int[SIZE + 1];
+    private final int[] bandCodes = new int[3];
+
+    //a number that is the same for every variant of an 81 character puzzle, so puzzles with different fingerprints are
+    //never the same up to the symmetries, it only counts the givens of every row, column, box and number so it costs
+    //far less than the canonical form, puzzles that are not the same can still share a fingerprint
+    public long fingerprint (String puzzle) {
+        read(puzzle);
+        Arrays.fill(rowCounts, 0);
+        Arrays.fill(columnCounts, 0);
+        Arrays.fill(boxCounts, 0);
+        Arrays.fill(numberCounts, 0);
+        for (int i = 0; i < CASES; i++) {
+            int number = grids[0][i];
+            if (number != 0) {
+                rowCounts[i / SIZE]++;
+                columnCounts[i % SIZE]++;
+                boxCounts[i / SIZE / 3 * 3 + i % SIZE / 3]++;
+                numberCounts[number]++;
+            }
+        }
+        //transposing swaps the rows and the columns, so take them smallest first
+        long rows = lines(rowCounts);
+        long columns = lines(columnCounts);
+        long lines = Math.min(rows, columns) * 1_000_000_000L + Math.max(rows, columns);
+        //the empty cases are not a number, the count at 0 stays 0 and sorts first
+        Arrays.sort(numberCounts);
+        Arrays.sort(boxCounts);
+        long counts = 0;
+        for (int k = 0; k < SIZE; k++) {
+            counts = counts * 100 + numberCounts[k + 1] * 10 + boxCounts[k];
+        }
+        return lines * 31 + counts;
+    }
+
+    //the counts of the lines of every band sorted, then the bands sorted, as digits since a line has at most 9 givens
+    private long lines (int[] counts) {
+        for (int band = 0; band < 3; band++) {
+            Arrays.sort(counts, 3 * band, 3 * band + 3);
+            bandCodes[band] = 100 * counts[3 * band] + 10 * counts[3 * band + 1] + counts[3 * band + 2];
+        }
+        Arrays.sort(bandCodes);
+        return bandCodes[0] * 1_000_000L + bandCodes[1] * 1000L + bandCodes[2];
+    }
+
+    //find the canonical form of an 81 character puzzle, null when more than MAX_TIED transformations tie for it
+    public CanonicalForm canonicalize (String puzzle) {
+        read(puzzle);
+        //start from both grids, with the stacks all in one group and the columns of a stack in one group
+        nextCount = 0;
+        for (int transposed = 0; transposed < 2; transposed++) {
+            int at = add();
+            Arrays.fill(next, at, at + STRIDE, 0);
+            next[at + TRANSPOSED] = transposed;
+            for (int c = 0; c < SIZE; c++) {
+                next[at + COLUMNS + c] = c;
+                next[at + GROUPS + c] = c % 3 == 0 ? 1 : 0;
+            }
+            next[at + STACK_GROUPS] = 1;
+            next[at + NEXT_LABEL] = 1;
+        }
+        swap();
+        //every row picks a row and orders the stacks and the columns of a group as far as the row tells them apart
+        for (int r = 0; r < SIZE; r++) {
+            nextCount = 0;
+            full = false;
+            bestLine[0] = Integer.MAX_VALUE;
+            for (int i = 0; i < currentCount; i++) {
+                extend(i * STRIDE, r);
+            }
+            if (full) {
+                return null;
+            }
+            swap();
+        }
+        return build(0);
+    }
+
+    //read the puzzle and its transpose into grids
+    private void read (String puzzle) {
+        if (puzzle.length() != CASES) {
+            throw new IllegalArgumentException("Must input a string of 81 characters");
+        }
+        for (int i = 0; i < CASES; i++) {
+            int number = SudokuBoard.number(puzzle.charAt(i));
+            if (number < 0 || number > SIZE) {
+                throw new IllegalArgumentException("Cases must be a number from 1 to 9, 0 or . when empty");
+            }
+            grids[0][i] = number;
+            grids[1][i / SIZE + SIZE * (i % SIZE)] = number;
+        }
+    }
+
+    //try every row that can be the r-th canonical row of the transformation at the offset of current
+    private void extend (int from, int r) {
+        int[] grid = grids[current[from + TRANSPOSED]];
+        for (int row = 0; row < SIZE; row++) {
+            if (!canFollow(from, r, row)) {
+                continue;
+            }
+            int order = arrange(from, grid, row);
+            if (order > 0) {
+                continue;
+            }
+            if (order < 0) {
+                System.arraycopy(line, 0, bestLine, 0, SIZE);
+                nextCount = 0;
+                full = false;
+            }
+            fork(from, r, row, 0);
+        }
+    }
+
+    //put the stacks and the columns in the order that gives the smallest canonical row for the row
+    //return how that row compares to bestLine
+    private int arrange (int from, int[] grid, int row) {
+        forkCount = 0;
+        for (int stack = 0; stack < 3; stack++) {
+            arrangeStack(from, grid, row, stack);
+        }
+        int start = 0;
+        while (start < 3) {
+            int end = start + 1;
+            while (end < 3 && current[from + STACK_GROUPS + end] == 0) {
+                end++;
+            }
+            //the stacks of a group were the same so far, the smallest goes first
+            for (int stack = start + 1; stack < end; stack++) {
+                for (int s = stack; s > start && compareStacks(s - 1, s) > 0; s--) {
+                    swapStacks(s - 1, s);
+                }
+            }
+            //stacks that are still the same stay a group, unless the new numbers in them get other labels in every order
+            int run = start;
+            for (int stack = start + 1; stack <= end; stack++) {
+                if (stack < end && compareStacks(run, stack) == 0) {
+                    continue;
+                }
+                boolean hasNew = newRuns[3 * run] + newRuns[3 * run + 1] + newRuns[3 * run + 2] > 0;
+                stackGroups[run] = 1;
+                for (int s = run + 1; s < stack; s++) {
+                    stackGroups[s] = hasNew ? 1 : 0;
+                }
+                if (hasNew && stack - run > 1) {
+                    addFork(run, stack, true);
+                }
+                run = stack;
+            }
+            start = end;
+        }
+        //the new numbers get the next labels in the order they show up
+        int nextLabel = current[from + NEXT_LABEL];
+        int order = 0;
+        for (int c = 0; c < SIZE; c++) {
+            if (line[c] == NEW) {
+                line[c] = nextLabel++;
+            }
+            if (order == 0 && line[c] != bestLine[c]) {
+                order = line[c] < bestLine[c] ? -1 : 1;
+            }
+            if (newRuns[c] == 1) {
+                int end = c + 1;
+                while (end < SIZE && newRuns[end] == 2) {
+                    end++;
+                }
+                if (end - c > 1) {
+                    addFork(c, end, false);
+                }
+            }
+        }
+        return order;
+    }
+
+    //order the columns of every group of the stack for the row, empty cases first, then the numbers with a label from
+    //the smallest, then the numbers without one, which get the next labels in the order they show up whatever it is
+    private void arrangeStack (int from, int[] grid, int row, int stack) {
+        int start = 3 * stack;
+        while (start < 3 * stack + 3) {
+            int end = start + 1;
+            while (end < 3 * stack + 3 && current[from + GROUPS + end] == 0) {
+                end++;
+            }
+            int c = start;
+            for (int k = start; k < end; k++) {
+                int x = current[from + COLUMNS + k];
+                if (grid[x + SIZE * row] == 0) {
+                    columns[c] = x;
+                    line[c] = 0;
+                    groups[c] = c == start ? 1 : 0;
+                    newRuns[c] = 0;
+                    c++;
+                }
+            }
+            //numbers of a row are all different, so every labelled or new number is a group of its own
+            int labelled = c;
+            for (int k = start; k < end; k++) {
+                int x = current[from + COLUMNS + k];
+                int label = current[from + LABELS + grid[x + SIZE * row]];
+                if (grid[x + SIZE * row] != 0 && label != 0) {
+                    int at = c++;
+                    while (at > labelled && line[at - 1] > label) {
+                        columns[at] = columns[at - 1];
+                        line[at] = line[at - 1];
+                        at--;
+                    }
+                    columns[at] = x;
+                    line[at] = label;
+                }
+            }
+            for (int k = labelled; k < c; k++) {
+                groups[k] = 1;
+                newRuns[k] = 0;
+            }
+            int firstNew = c;
+            for (int k = start; k < end; k++) {
+                int x = current[from + COLUMNS + k];
+                if (grid[x + SIZE * row] != 0 && current[from + LABELS + grid[x + SIZE * row]] == 0) {
+                    columns[c] = x;
+                    line[c] = NEW;
+                    groups[c] = 1;
+                    newRuns[c] = c == firstNew ? 1 : 2;
+                    c++;
+                }
+            }
+            start = end;
+        }
+    }
+
+    private int compareStacks (int a, int b) {
+        for (int k = 0; k < 3; k++) {
+            if (line[3 * a + k] != line[3 * b + k]) {
+                return line[3 * a + k] < line[3 * b + k] ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    private void swapStacks (int a, int b) {
+        for (int k = 0; k < 3; k++) {
+            swap(columns, 3 * a + k, 3 * b + k);
+            swap(line, 3 * a + k, 3 * b + k);
+            swap(groups, 3 * a + k, 3 * b + k);
+            swap(newRuns, 3 * a + k, 3 * b + k);
+        }
+    }
+
+    private static void swap (int[] array, int a, int b) {
+        int swap = array[a];
+        array[a] = array[b];
+        array[b] = swap;
+    }
+
+    private void addFork (int start, int end, boolean stacks) {
+        forkStarts[forkCount] = start;
+        forkEnds[forkCount] = end;
+        forkStacks[forkCount] = stacks;
+        forkCount++;
+    }
+
+    //add the transformation for the row, once for every order of the runs from the n-th one on
+    private void fork (int from, int r, int row, int n) {
+        //once next is full nothing more fits until a smaller row empties it, so the orders left are not worth trying
+        if (full) {
+            return;
+        }
+        if (n == forkCount) {
+            add(from, r, row);
+            return;
+        }
+        permute(from, r, row, n, forkStarts[n]);
+    }
+
+    //every order of the run from its i-th column or stack on, the stacks of a run have their columns in the same groups
+    private void permute (int from, int r, int row, int n, int i) {
+        if (i == forkEnds[n]) {
+            fork(from, r, row, n + 1);
+            return;
+        }
+        for (int k = i; k < forkEnds[n]; k++) {
+            swapRun(n, i, k);
+            permute(from, r, row, n, i + 1);
+            swapRun(n, i, k);
+        }
+    }
+
+    private void swapRun (int n, int a, int b) {
+        if (!forkStacks[n]) {
+            swap(columns, a, b);
+            return;
+        }
+        for (int k = 0; k < 3; k++) {
+            swap(columns, 3 * a + k, 3 * b + k);
+        }
+    }
+
+    //add the transformation at the offset of current with the arranged row as its r-th canonical row
+    private void add (int from, int r, int row) {
+        int at = add();
+        if (at < 0) {
+            return;
+        }
+        int[] grid = grids[current[from + TRANSPOSED]];
+        System.arraycopy(current, from, next, at, STRIDE);
+        System.arraycopy(columns, 0, next, at + COLUMNS, SIZE);
+        System.arraycopy(groups, 0, next, at + GROUPS, SIZE);
+        System.arraycopy(stackGroups, 0, next, at + STACK_GROUPS, 3);
+        next[at + ROWS + r] = row;
+        int nextLabel = next[at + NEXT_LABEL];
+        for (int c = 0; c < SIZE; c++) {
+            int number = grid[columns[c] + SIZE * row];
+            if (number != 0 && next[at + LABELS + number] == 0) {
+                next[at + LABELS + number] = nextLabel++;
+            }
+        }
+        next[at + NEXT_LABEL] = nextLabel;
+    }
+
+    //check if the row can be the r-th canonical row after the rows already picked, bands have to stay together
+    private boolean canFollow (int from, int r, int row) {
+        for (int i = 0; i < r; i++) {
+            int picked = current[from + ROWS + i];
+            if (picked == row) {
+                return false;
+            }
+            //a new band can be any band left
+            if (r % 3 == 0 && picked / 3 == row / 3) {
+                return false;
+            }
+        }
+        //inside a band the row has to come from the band of the row before it
+        return r % 3 == 0 || row / 3 == current[from + ROWS + r - 1] / 3;
+    }
+
+    //make room for one more transformation in next and return its offset, -1 once MAX_TIED of them are there
+    private int add () {
+        if (nextCount == MAX_TIED) {
+            full = true;
+            return -1;
+        }
+        if ((nextCount + 1) * STRIDE > next.length) {
+            int[] bigger = new int[next.length * 2];
+            System.arraycopy(next, 0, bigger, 0, nextCount * STRIDE);
+            next = bigger;
+        }
+        return nextCount++ * STRIDE;
+    }
+
+    private void swap () {
+        int[] swap = current;
+        current = next;
+        next = swap;
+        currentCount = nextCount;
+    }
+
+    //the canonical puzzle and the mapping of the finished transformation at the offset of current
+    private CanonicalForm build (int from) {
+        int[] grid = grids[current[from + TRANSPOSED]];
+        boolean transposed = current[from + TRANSPOSED] == 1;
+        int[] finalLabels = new int[SIZE + 1];
+        System.arraycopy(current, from + LABELS, finalLabels, 0, SIZE + 1);
+        //the numbers missing from the puzzle get the labels left, in order
+        int nextLabel = current[from + NEXT_LABEL];
+        for (int number = 1; number <= SIZE; number++) {
+            if (finalLabels[number] == 0) {
+                finalLabels[number] = nextLabel++;
+            }
+        }
+        int[] caseMap = new int[CASES];
+        char[] cases = new char[CASES];
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                int x = current[from + COLUMNS + c];
+                int y = current[from + ROWS + r];
+                caseMap[transposed ? y + SIZE * x : x + SIZE * y] = c + SIZE * r;
+                cases[c + SIZE * r] = SudokuBoard.symbol(finalLabels[grid[x + SIZE * y]]);
+            }
+        }
+        return new CanonicalForm(new String(cases), caseMap, finalLabels);
+    }
+}
@@ -0,0 +1,228 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+//solves a puzzle as an exact cover problem with Algorithm X and dancing links
+//every (case, number) pair is a row of the matrix that covers 4 of the 324 constraints:
+//the case is filled, and the number is in its row, its column and its box
+//all the links live in preallocated int arrays, so one solver can be reused for many puzzles without allocating
+public class DancingLinksSolver {
+    private static final int CASES = 81;
+    private static final int ROWS = CASES * 9;
+    private static final int COLUMNS = CASES * 4;
+    //node 0 is the root, nodes 1 to 324 are the column headers, the rest are 4 nodes per matrix row
+    private static final int ROOT = 0;
+    private static final int NODES = 1 + COLUMNS + ROWS * 4;
+
+    private final int[] left = new int[NODES];
+    private final int[] right = new int[NODES];
+    private final int[] up = new int[NODES];
+    private final int[] down = new int[NODES];
+    //the column header of every node and the matrix row it belongs to
+    private final int[] column = new int[NODES];
+    private final int[] matrixRow = new int[NODES];
+    //how many nodes are left in every column
+    private final int[] size = new int[COLUMNS + 1];
+    //first node of every matrix row
+    private final int[] rowStart = new int[ROWS];
+
+    //the number in each case of the current partial solution and of the first solution found
+    private final int[] current = new int[CASES];
+    private final int[] solution = new int[CASES];
+    private int solutions;
+    private int limit;
+
+    //returns the solution as an 81 character line, null if the puzzle has none
+    public String solve (String puzzle) {
+        if (puzzle.length() != CASES) {
+            throw new IllegalArgumentException("Must input a string of 81 characters");
+        }
+        reset();
+        for (int i = 0; i < CASES; i++) {
+            if (!give(i, puzzle.charAt(i))) {
+                return null;
+            }
+        }
+        return run(1) == 0 ? null : solutionLine();
+    }
+
+    //same as solve(String) but reads the 81 bytes of the puzzle straight from the buffer
+    public String solve (ByteBuffer buffer, int offset) {
+        if (offset < 0 || offset + CASES > buffer.limit()) {
+            throw new IllegalArgumentException("Must input 81 bytes");
+        }
+        reset();
+        for (int i = 0; i < CASES; i++) {
+            if (!give(i, (char) buffer.get(offset + i))) {
+                return null;
+            }
+        }
+        return run(1) == 0 ? null : solutionLine();
+    }
+
+    //count the solutions of the puzzle, stopping as soon as we reach the limit
+    public int countSolutions (String puzzle, int limit) {
+        if (puzzle.length() != CASES) {
+            throw new IllegalArgumentException("Must input a string of 81 characters");
+        }
+        reset();
+        for (int i = 0; i < CASES; i++) {
+            if (!give(i, puzzle.charAt(i))) {
+                return 0;
+            }
+        }
+        return run(limit);
+    }
+
+    //region Matrix
+    //link the whole matrix again, this is cheaper than undoing the givens of the last puzzle
+    private void reset () {
+        for (int c = 0; c <= COLUMNS; c++) {
+            left[c] = c == 0 ? COLUMNS : c - 1;
+            right[c] = c == COLUMNS ? 0 : c + 1;
+            up[c] = c;
+            down[c] = c;
+            size[c] = 0;
+        }
+        int node = COLUMNS + 1;
+        for (int r = 0; r < ROWS; r++) {
+            int index = r / 9;
+            int number = r % 9;
+            int y = index / 9;
+            int x = index % 9;
+            int box = (y / 3) * 3 + x / 3;
+            rowStart[r] = node;
+            addNode(node, 1 + index, r);
+            addNode(node + 1, 1 + CASES + y * 9 + number, r);
+            addNode(node + 2, 1 + 2 * CASES + x * 9 + number, r);
+            addNode(node + 3, 1 + 3 * CASES + box * 9 + number, r);
+            //the 4 nodes of a row are linked in a circle
+            for (int k = 0; k < 4; k++) {
+                left[node + k] = node + (k + 3) % 4;
+                right[node + k] = node + (k + 1) % 4;
+            }
+            node += 4;
+        }
+        Arrays.fill(current, 0);
+        solutions = 0;
+    }
+
+    //put the node at the bottom of its column
+    private void addNode (int node, int col, int r) {
+        column[node] = col;
+        matrixRow[node] = r;
+        up[node] = up[col];
+        down[node] = col;
+        down[up[col]] = node;
+        up[col] = node;
+        size[col]++;
+    }
+
+    //remove a column and every row that also covers it
+    private void cover (int col) {
+        right[left[col]] = right[col];
+        left[right[col]] = left[col];
+        for (int i = down[col]; i != col; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                size[column[j]]--;
+            }
+        }
+    }
+
+    //exact reverse of cover
+    private void uncover (int col) {
+        for (int i = up[col]; i != col; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        right[left[col]] = col;
+        left[right[col]] = col;
+    }
+
+    //select the row of a given number, returns false if the givens already break a rule
+    private boolean give (int index, char input) {
+        if (input == '.' || input == '0') {
+            return true;
+        }
+        if (input < '1' || input > '9') {
+            throw new IllegalArgumentException("Cases must be a number from 1 to 9, 0 or . when empty");
+        }
+        int start = rowStart[index * 9 + input - '1'];
+        //every constraint of the row must still be open
+        int node = start;
+        do {
+            int col = column[node];
+            if (right[left[col]] != col) {
+                return false;
+            }
+            node = right[node];
+        } while (node != start);
+        node = start;
+        do {
+            cover(column[node]);
+            node = right[node];
+        } while (node != start);
+        current[index] = input - '0';
+        return true;
+    }
+    //endregion
+
+    //region Search
+    //search for up to limit solutions and return how many were found
+    private int run (int limit) {
+        this.limit = limit;
+        search();
+        return solutions;
+    }
+
+    //Algorithm X, returns true once we found enough solutions to stop
+    private boolean search () {
+        if (right[ROOT] == ROOT) {
+            solutions++;
+            if (solutions == 1) {
+                System.arraycopy(current, 0, solution, 0, CASES);
+            }
+            return solutions >= limit;
+        }
+        //always branch on the constraint with the fewest rows left
+        int col = right[ROOT];
+        for (int c = right[col]; c != ROOT; c = right[c]) {
+            if (size[c] < size[col]) {
+                col = c;
+            }
+        }
+        if (size[col] == 0) {
+            return false;
+        }
+        cover(col);
+        for (int r = down[col]; r != col; r = down[r]) {
+            current[matrixRow[r] / 9] = matrixRow[r] % 9 + 1;
+            for (int j = right[r]; j != r; j = right[j]) {
+                cover(column[j]);
+            }
+            boolean stop = search();
+            for (int j = left[r]; j != r; j = left[j]) {
+                uncover(column[j]);
+            }
+            if (stop) {
+                uncover(col);
+                return true;
+            }
+        }
+        uncover(col);
+        return false;
+    }
+    //endregion
+
+    private String solutionLine () {
+        char[] line = new char[CASES];
+        for (int i = 0; i < CASES; i++) {
+            line[i] = (char) ('0' + solution[i]);
+        }
+        return new String(line);
+    }
+}
@@ -0,0 +1,134 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+//reads a puzzle file, one puzzle per line, by mapping it into memory
+//the file is split into regions that always start and end on a line so workers can each take one
+public class MappedPuzzleReader implements Closeable {
+    //a single mapping cannot be bigger than 2GB, so regions are kept well below that
+    static final long MAX_REGION_BYTES = 1 << 30;
+
+    private final FileChannel channel;
+    private final long size;
+
+    public MappedPuzzleReader (Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        size = channel.size();
+    }
+
+    public long size () {
+        return size;
+    }
+
+    //split the file into the given number of regions of about the same size
+    public List<Region> split (int parts) throws IOException {
+        if (parts < 1) {
+            throw new IllegalArgumentException("Must split into at least one region");
+        }
+        return splitBytes(Math.max(1, (size + parts - 1) / parts));
+    }
+
+    //split the file into regions of about regionBytes, each one ends right after a newline or at the end of the file
+    public List<Region> splitBytes (long regionBytes) throws IOException {
+        if (regionBytes < 1) {
+            throw new IllegalArgumentException("Regions must have at least one byte");
+        }
+        regionBytes = Math.min(regionBytes, MAX_REGION_BYTES);
+        List<Region> regions = new ArrayList<>();
+        ByteBuffer scan = ByteBuffer.allocate(256);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + regionBytes);
+            //move the end forward until it is just past a newline
+            while (end < size) {
+                scan.clear();
+                int read = channel.read(scan, end);
+                if (read <= 0) {
+                    end = size;
+                    break;
+                }
+                int newline = -1;
+                for (int i = 0; i < read; i++) {
+                    if (scan.get(i) == '\n') {
+                        newline = i;
+                        break;
+                    }
+                }
+                if (newline != -1) {
+                    end += newline + 1;
+                    break;
+                }
+                end += read;
+            }
+            regions.add(new Region(start, end));
+            start = end;
+        }
+        return regions;
+    }
+
+    @Override
+    public void close () throws IOException {
+        channel.close();
+    }
+
+    //receives the lines of a region without turning them into strings, the line ending is not included
+    public interface LineHandler {
+        void line (ByteBuffer buffer, int offset, int length);
+    }
+
+    //a part of the file made only of whole lines
+    public class Region {
+        public final long start;
+        public final long end;
+
+        Region (long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        //map the region and hand a board for every non empty line to the handler, in order
+        //lines that are not a puzzle are handed over as null
+        public void forEachPuzzle (Consumer<SudokuBoard> handler) throws IOException {
+            forEachLine((buffer, offset, length) -> handler.accept(parse(buffer, offset, length)));
+        }
+
+        //map the region and hand where every non empty line is in the buffer to the handler, in order
+        public void forEachLine (LineHandler handler) throws IOException {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            int limit = buffer.limit();
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                //the next line starts after the newline
+                int next = lineEnd + 1;
+                //ignore windows line endings
+                if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                if (lineEnd > lineStart) {
+                    handler.line(buffer, lineStart, lineEnd - lineStart);
+                }
+                lineStart = next;
+            }
+        }
+
+        //the length of the line tells the size of the board, 81 for 9x9, 256 for 16x16 and 625 for 25x25
+        private SudokuBoard parse (ByteBuffer buffer, int offset, int length) {
+            try {
+                return new SudokuBoard(buffer, offset, length);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//writes the totals of a TechniqueMetrics to a file every period, and one last time when closed
+public class MetricsReporter implements Closeable {
+    private final TechniqueMetrics metrics;
+    private final Path file;
+    private final TechniqueMetrics.Format format;
+    private final ScheduledExecutorService timer;
+
+    public MetricsReporter (TechniqueMetrics metrics, Path file, TechniqueMetrics.Format format,
+                            long period, TimeUnit unit) {
+        if (period < 1) {
+            throw new IllegalArgumentException("The period must be positive");
+        }
+        this.metrics = metrics;
+        this.file = file;
+        this.format = format;
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            //never keep the program alive just to write metrics
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(this::dump, period, period, unit);
+    }
+
+    //a failed dump must not stop the next ones, the final one in close reports its error
+    private void dump () {
+        try {
+            metrics.writeTo(file, format);
+        } catch (IOException e) {
+            System.err.println("Could not write metrics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close () throws IOException {
+        timer.shutdownNow();
+        try {
+            timer.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        metrics.writeTo(file, format);
+    }
+}
@@ -0,0 +1,221 @@
+import java.nio.ByteBuffer;
+
+//the binary format of puzzle archives, much smaller than text lines and read without parsing any character
+//a file starts with a header of HEADER_BYTES: the magic bytes SDKP, the version, the kind of records, the side of the
+//boxes and a reserved byte, then the number of records as a big endian long, followed by the records back to back
+//a puzzle takes 4 bits per case, the first case in the high half of the first byte, 41 bytes for a 9x9 board
+//a solution only stores its first 8 rows, each one as the rank of its order among the 9! orders of the numbers,
+//which fits in 19 bits, so 152 bits or 19 bytes, the last row is the number each column is still missing
+//only 9x9 boards are written for now, the box side in the header leaves room for the other sizes
+public final class PackedPuzzleFormat {
+    static final byte[] MAGIC = {'S', 'D', 'K', 'P'};
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    //where the number of records is in the header
+    static final int COUNT_OFFSET = 8;
+    static final int CELLS = 81;
+    //bits of the rank of a row, 9! = 362880 is below 2^19
+    static final int RANK_BITS = 19;
+
+    //what the records of a file are
+    public enum Kind {
+        //puzzles with empty cases, 4 bits per case
+        PUZZLES(0, (CELLS + 1) / 2),
+        //solved boards, 19 bits for each of the first 8 rows
+        SOLUTIONS(1, (8 * RANK_BITS + 7) / 8);
+
+        final int code;
+        final int recordBytes;
+
+        Kind (int code, int recordBytes) {
+            this.code = code;
+            this.recordBytes = recordBytes;
+        }
+
+        public int getRecordBytes () {
+            return recordBytes;
+        }
+
+        static Kind of (int code) {
+            for (Kind kind : values()) {
+                if (kind.code == code) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("Unknown kind of records " + code);
+        }
+    }
+
+    private PackedPuzzleFormat () {
+    }
+
+    //region Header
+    static void writeHeader (ByteBuffer buffer, Kind kind, long count) {
+        buffer.put(MAGIC);
+        buffer.put((byte) VERSION);
+        buffer.put((byte) kind.code);
+        buffer.put((byte) 3);
+        buffer.put((byte) 0);
+        buffer.putLong(count);
+    }
+
+    //check the header at the start of the buffer and return the kind of its records
+    static Kind readKind (ByteBuffer buffer) {
+        if (buffer.limit() < HEADER_BYTES) {
+            throw new IllegalArgumentException("Must start with a header of " + HEADER_BYTES + " bytes");
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(i) != MAGIC[i]) {
+                throw new IllegalArgumentException("Not a packed puzzle file");
+            }
+        }
+        if (buffer.get(4) != VERSION) {
+            throw new IllegalArgumentException("Unknown version " + buffer.get(4));
+        }
+        if (buffer.get(6) != 3) {
+            throw new IllegalArgumentException("Only 9x9 boards can be read");
+        }
+        return Kind.of(buffer.get(5));
+    }
+
+    static long readCount (ByteBuffer buffer) {
+        long count = buffer.getLong(COUNT_OFFSET);
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative number of records");
+        }
+        return count;
+    }
+    //endregion
+
+    //region Puzzles
+    //put the 81 numbers, 0 for an empty case, at the position of the buffer
+    static void packPuzzle (int[] numbers, ByteBuffer buffer) {
+        for (int i = 0; i < CELLS; i += 2) {
+            int low = i + 1 < CELLS ? numbers[i + 1] : 0;
+            buffer.put((byte) (numbers[i] << 4 | low));
+        }
+    }
+
+    //read the 81 numbers of a puzzle at offset into numbers
+    static void unpackPuzzle (ByteBuffer buffer, int offset, int[] numbers) {
+        for (int i = 0; i < CELLS; i += 2) {
+            int packed = buffer.get(offset + (i >> 1)) & 0xFF;
+            numbers[i] = checked(packed >>> 4);
+            if (i + 1 < CELLS) {
+                numbers[i + 1] = checked(packed & 0xF);
+            }
+        }
+    }
+
+    private static int checked (int number) {
+        if (number > 9) {
+            throw new IllegalArgumentException("Cases must be a number from 1 to 9, 0 when empty");
+        }
+        return number;
+    }
+    //endregion
+
+    //region Solutions
+    //put the first 8 rows of a solved board at the position of the buffer
+    static void packSolution (int[] numbers, ByteBuffer buffer) {
+        if (!isSolution(numbers)) {
+            throw new IllegalArgumentException("Must be a solved board");
+        }
+        //bits waiting to be written are the low ones of pending
+        long pending = 0;
+        int bits = 0;
+        for (int y = 0; y < 8; y++) {
+            pending = pending << RANK_BITS | rank(numbers, 9 * y);
+            bits += RANK_BITS;
+            while (bits >= 8) {
+                bits -= 8;
+                buffer.put((byte) (pending >>> bits));
+            }
+        }
+        if (bits > 0) {
+            buffer.put((byte) (pending << (8 - bits)));
+        }
+    }
+
+    //read the solution at offset into numbers, rebuilding the last row from the columns
+    static void unpackSolution (ByteBuffer buffer, int offset, int[] numbers) {
+        long pending = 0;
+        int bits = 0;
+        int read = offset;
+        for (int y = 0; y < 8; y++) {
+            while (bits < RANK_BITS) {
+                pending = pending << 8 | (buffer.get(read++) & 0xFF);
+                bits += 8;
+            }
+            bits -= RANK_BITS;
+            unrank((int) (pending >>> bits) & ((1 << RANK_BITS) - 1), numbers, 9 * y);
+        }
+        for (int x = 0; x < 9; x++) {
+            int missing = 0x1FF;
+            for (int y = 0; y < 8; y++) {
+                missing &= ~(1 << numbers[x + 9 * y] - 1);
+            }
+            if (Integer.bitCount(missing) != 1) {
+                throw new IllegalArgumentException("Not a solved board");
+            }
+            numbers[x + 72] = Integer.numberOfTrailingZeros(missing) + 1;
+        }
+    }
+
+    //the rank of the order of the 9 numbers from start, counting for each one how many of the numbers left are smaller
+    private static int rank (int[] numbers, int start) {
+        int left = 0x1FF;
+        int rank = 0;
+        for (int i = 0; i < 9; i++) {
+            int bit = 1 << numbers[start + i] - 1;
+            rank = rank * (9 - i) + Integer.bitCount(left & (bit - 1));
+            left &= ~bit;
+        }
+        return rank;
+    }
+
+    private static void unrank (int rank, int[] numbers, int start) {
+        if (rank >= 362880) {
+            throw new IllegalArgumentException("Not a solved board");
+        }
+        //the digits of the rank, the last one in base 1, then base 2 up to base 9 for the first one
+        int[] smaller = new int[9];
+        for (int i = 8; i >= 0; i--) {
+            smaller[i] = rank % (9 - i);
+            rank /= 9 - i;
+        }
+        int left = 0x1FF;
+        for (int i = 0; i < 9; i++) {
+            int mask = left;
+            for (int skip = 0; skip < smaller[i]; skip++) {
+                mask &= mask - 1;
+            }
+            int bit = Integer.lowestOneBit(mask);
+            numbers[start + i] = Integer.numberOfTrailingZeros(bit) + 1;
+            left &= ~bit;
+        }
+    }
+
+    //every row, column and box holds every number once
+    private static boolean isSolution (int[] numbers) {
+        int[] seen = new int[27];
+        for (int index = 0; index < CELLS; index++) {
+            int n = numbers[index];
+            if (n < 1 || n > 9) {
+                return false;
+            }
+            int x = index % 9;
+            int y = index / 9;
+            seen[y] |= 1 << n - 1;
+            seen[9 + x] |= 1 << n - 1;
+            seen[18 + x / 3 + 3 * (y / 3)] |= 1 << n - 1;
+        }
+        for (int house : seen) {
+            if (house != 0x1FF) {
+                return false;
+            }
+        }
+        return true;
+    }
+    //endregion
+}
@@ -0,0 +1,128 @@
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+//reads a file written by PackedPuzzleWriter, records go straight from their bits into a board
+//every record has the same size, so any record can be read on its own without going through the ones before it
+public class PackedPuzzleReader implements Closeable {
+    //how many records are read from the file at once when going through all of them
+    static final int BLOCK_RECORDS = 4096;
+
+    private final FileChannel channel;
+    private final PackedPuzzleFormat.Kind kind;
+    private final long count;
+
+    public PackedPuzzleReader (Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(PackedPuzzleFormat.HEADER_BYTES);
+            readFully(header, 0);
+            header.flip();
+            kind = PackedPuzzleFormat.readKind(header);
+            count = PackedPuzzleFormat.readCount(header);
+            if (channel.size() < PackedPuzzleFormat.HEADER_BYTES + count * kind.recordBytes) {
+                throw new IllegalArgumentException("The file is shorter than its " + count + " records");
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public PackedPuzzleFormat.Kind getKind () {
+        return kind;
+    }
+
+    public long getCount () {
+        return count;
+    }
+
+    //the board of the record at index, counting from 0
+    public SudokuBoard read (long index) throws IOException {
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("No record " + index + " in a file of " + count);
+        }
+        ByteBuffer record = ByteBuffer.allocate(kind.recordBytes);
+        readFully(record, position(index));
+        int[] numbers = new int[PackedPuzzleFormat.CELLS];
+        unpack(record, 0, numbers);
+        return new SudokuBoard(numbers);
+    }
+
+    //hand the board of every record to the handler, in order
+    public void forEach (Consumer<SudokuBoard> handler) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_RECORDS * kind.recordBytes);
+        int[] numbers = new int[PackedPuzzleFormat.CELLS];
+        for (long first = 0; first < count; first += BLOCK_RECORDS) {
+            int records = (int) Math.min(BLOCK_RECORDS, count - first);
+            block.clear().limit(records * kind.recordBytes);
+            readFully(block, position(first));
+            for (int i = 0; i < records; i++) {
+                unpack(block, i * kind.recordBytes, numbers);
+                handler.accept(new SudokuBoard(numbers));
+            }
+        }
+    }
+
+    private void unpack (ByteBuffer buffer, int offset, int[] numbers) {
+        if (kind == PackedPuzzleFormat.Kind.SOLUTIONS) {
+            PackedPuzzleFormat.unpackSolution(buffer, offset, numbers);
+        } else {
+            PackedPuzzleFormat.unpackPuzzle(buffer, offset, numbers);
+        }
+    }
+
+    private long position (long index) {
+        return PackedPuzzleFormat.HEADER_BYTES + index * kind.recordBytes;
+    }
+
+    //fill the rest of the buffer from the file, starting at position
+    private void readFully (ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IllegalArgumentException("The file ends in the middle of a record");
+            }
+            position += read;
+        }
+    }
+
+    @Override
+    public void close () throws IOException {
+        channel.close();
+    }
+
+    //writes every record of the file given after --unpack as one line on standard output
+    public static void main (String[] args) throws IOException {
+        Path file = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--unpack") && i + 1 < args.length) {
+                file = Paths.get(args[++i]);
+            }
+        }
+        if (file == null) {
+            throw new IllegalArgumentException("Must give the file to read after --unpack");
+        }
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+        try (PackedPuzzleReader reader = new PackedPuzzleReader(file)) {
+            reader.forEach(board -> {
+                try {
+                    writer.append(board.toLine()).append(System.lineSeparator());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,134 @@
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+//writes puzzles or solutions in the binary format of PackedPuzzleFormat
+//the number of records goes into the header when the writer is closed, so a file that was never closed reads as empty
+public class PackedPuzzleWriter implements Closeable {
+    //records are gathered in memory and written a block at a time
+    static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final PackedPuzzleFormat.Kind kind;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private final int[] numbers = new int[PackedPuzzleFormat.CELLS];
+    private long count = 0;
+
+    public PackedPuzzleWriter (Path file, PackedPuzzleFormat.Kind kind) throws IOException {
+        this.kind = kind;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        PackedPuzzleFormat.writeHeader(buffer, kind, 0);
+    }
+
+    //write an 81 character line, in the same format as the string constructor of the board
+    public void write (String line) throws IOException {
+        if (line.length() != PackedPuzzleFormat.CELLS) {
+            throw new IllegalArgumentException("Must input a string of 81 characters");
+        }
+        for (int i = 0; i < PackedPuzzleFormat.CELLS; i++) {
+            int number = SudokuBoard.number(line.charAt(i));
+            if (number < 0 || number > 9) {
+                throw new IllegalArgumentException("Cases must be a number from 1 to 9, 0 or . when empty");
+            }
+            numbers[i] = number;
+        }
+        write(numbers);
+    }
+
+    //write the numbers the board has right now
+    public void write (SudokuBoard board) throws IOException {
+        if (board.getSize() != 9) {
+            throw new IllegalArgumentException("Only 9x9 boards can be written");
+        }
+        for (int i = 0; i < PackedPuzzleFormat.CELLS; i++) {
+            numbers[i] = board.getNumber(i);
+        }
+        write(numbers);
+    }
+
+    private void write (int[] numbers) throws IOException {
+        if (buffer.remaining() < kind.recordBytes) {
+            flush();
+        }
+        //a bad solution must not leave half a record behind
+        int start = buffer.position();
+        try {
+            if (kind == PackedPuzzleFormat.Kind.SOLUTIONS) {
+                PackedPuzzleFormat.packSolution(numbers, buffer);
+            } else {
+                PackedPuzzleFormat.packPuzzle(numbers, buffer);
+            }
+        } catch (IllegalArgumentException e) {
+            buffer.position(start);
+            throw e;
+        }
+        count++;
+    }
+
+    public long getCount () {
+        return count;
+    }
+
+    private void flush () throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    //write what is left and the number of records
+    @Override
+    public void close () throws IOException {
+        try {
+            flush();
+            ByteBuffer header = ByteBuffer.allocate(Long.BYTES);
+            header.putLong(count).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, PackedPuzzleFormat.COUNT_OFFSET + header.position());
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    //reads one puzzle per line on standard input and packs them into the file given after --pack
+    //--solutions stores solved boards in the denser format instead, lines that cannot be stored are skipped
+    public static void main (String[] args) throws IOException {
+        Path file = null;
+        PackedPuzzleFormat.Kind kind = PackedPuzzleFormat.Kind.PUZZLES;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--pack") && i + 1 < args.length) {
+                file = Paths.get(args[++i]);
+            } else if (args[i].equals("--solutions")) {
+                kind = PackedPuzzleFormat.Kind.SOLUTIONS;
+            }
+        }
+        if (file == null) {
+            throw new IllegalArgumentException("Must give the file to write after --pack");
+        }
+        long skipped = 0;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in), 1 << 16);
+        try (PackedPuzzleWriter writer = new PackedPuzzleWriter(file, kind)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    writer.write(line);
+                } catch (IllegalArgumentException e) {
+                    skipped++;
+                }
+            }
+            System.err.println("packed " + writer.getCount() + " records, skipped " + skipped + " lines");
+        }
+    }
+}
@@ -0,0 +1,189 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+//solves a single hard puzzle on many threads, for the big boards and the rare 9x9 puzzles that need a long search
+//the first splitDepth levels of guesses are fork join tasks that the pool hands out and steals between workers,
+//each with its own copy of the board, below that every task searches on its own like SudokuSolver does
+//as soon as a task finds the solution every other task stops, the ones not started yet are cancelled and the
+//running ones notice at their next guess
+//a solver can be shared by threads, every solve keeps its state in a Search of its own
+public class ParallelSolver {
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+    //every worker thread follows guesses through with a scheduler and a stack of boards of its own
+    private final ThreadLocal<Worker> workers;
+
+    //search on the common pool with every basic technique
+    public ParallelSolver () {
+        this(ForkJoinPool.commonPool());
+    }
+
+    //split deep enough that there are about 4 tasks per worker when every guess has 2 possibilities
+    public ParallelSolver (ForkJoinPool pool) {
+        this(pool, 32 - Integer.numberOfLeadingZeros(4 * pool.getParallelism() - 1), TechniqueScheduler::standard);
+    }
+
+    //a deeper split gives more and smaller tasks to steal, a scheduler is made for every worker thread
+    public ParallelSolver (ForkJoinPool pool, int splitDepth, Supplier<TechniqueScheduler> schedulers) {
+        if (splitDepth < 0) {
+            throw new IllegalArgumentException("Must split at a depth of at least 0");
+        }
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+        workers = ThreadLocal.withInitial(() -> new Worker(schedulers.get()));
+    }
+
+    //solve the board in place, returns false if the board has no solution
+    //the board only hears about the numbers when the solution is copied into it, not while the tasks search
+    public boolean solve (SudokuBoard board) {
+        return solve(board, new LongAdder());
+    }
+
+    //same as solve(SudokuBoard) and adds how many numbers every task guessed to guesses
+    public boolean solve (SudokuBoard board, LongAdder guesses) {
+        if (!board.isValid()) {
+            return false;
+        }
+        Search search = new Search(guesses);
+        pool.invoke(new SearchTask(search, new SudokuBoard(board), 0));
+        SudokuBoard solution = search.solution.get();
+        if (solution == null) {
+            return false;
+        }
+        String before = board.toLine();
+        board.copyFrom(solution);
+        for (int i = 0; i < before.length(); i++) {
+            if (before.charAt(i) == '.') {
+                board.getListener().placed(board, i, board.getNumber(i));
+            }
+        }
+        return true;
+    }
+
+    //what the tasks of one solve share
+    private static class Search {
+        //the first solution found, the tasks stop once it is set
+        final AtomicReference<SudokuBoard> solution = new AtomicReference<>();
+        final LongAdder guesses;
+
+        Search (LongAdder guesses) {
+            this.guesses = guesses;
+        }
+
+        boolean isDone () {
+            return solution.get() != null;
+        }
+    }
+
+    //the scheduler and the board of every depth of the searches a thread runs, a search never forks so
+    //only one of them uses the stack at a time
+    private static class Worker {
+        final TechniqueScheduler scheduler;
+        SudokuBoard[] stack = new SudokuBoard[0];
+
+        Worker (TechniqueScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        //overwrite the board of the depth with the other board and return it
+        //the stack holds boards of the size of the last search, it starts over for a board of another size
+        SudokuBoard copy (int depth, SudokuBoard other) {
+            if (depth == 0 && stack.length > 0 && stack[0].getSize() != other.getSize()) {
+                stack = new SudokuBoard[0];
+            }
+            if (depth == stack.length) {
+                SudokuBoard[] newStack = new SudokuBoard[depth + 1];
+                System.arraycopy(stack, 0, newStack, 0, depth);
+                newStack[depth] = new SudokuBoard(other);
+                stack = newStack;
+            } else {
+                stack[depth].copyFrom(other);
+            }
+            return stack[depth];
+        }
+    }
+
+    //the part of the search below one board, the task owns the board
+    private class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final Search search;
+        final SudokuBoard state;
+        final int depth;
+
+        SearchTask (Search search, SudokuBoard state, int depth) {
+            this.search = search;
+            this.state = state;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute () {
+            if (search.isDone()) {
+                return;
+            }
+            Worker worker = workers.get();
+            worker.scheduler.run(state);
+            if (depth >= splitDepth) {
+                worker.copy(0, state);
+                search(worker, 0);
+                return;
+            }
+            if (state.hasContradiction()) {
+                return;
+            }
+            int guess = state.fewestPossIndex();
+            //a full board is the solution unless it breaks a rule
+            if (guess == -1) {
+                if (state.isSolved()) {
+                    search.solution.compareAndSet(null, state);
+                }
+                return;
+            }
+            int mask = state.getPossMask(guess);
+            SearchTask[] children = new SearchTask[SudokuBoard.countPoss(mask)];
+            for (int i = 0; mask != 0; i++, mask &= mask - 1) {
+                search.guesses.increment();
+                SudokuBoard child = new SudokuBoard(state);
+                child.setNumber(guess, SudokuBoard.lowestPoss(mask));
+                children[i] = new SearchTask(search, child, depth + 1);
+            }
+            //the first possibility runs here while the others wait for a worker to steal them
+            for (int i = children.length - 1; i > 0; i--) {
+                children[i].fork();
+            }
+            children[0].compute();
+            for (int i = 1; i < children.length; i++) {
+                //a child nobody took yet is dropped once the solution is known, a running one stops on its own
+                if (!search.isDone() || !children[i].cancel(false)) {
+                    children[i].quietlyJoin();
+                }
+            }
+        }
+
+        //the sequential search below the split, on the boards of the worker
+        private void search (Worker worker, int depth) {
+            SudokuBoard board = worker.stack[depth];
+            if (board.hasContradiction()) {
+                return;
+            }
+            int guess = board.fewestPossIndex();
+            if (guess == -1) {
+                if (board.isSolved()) {
+                    search.solution.compareAndSet(null, new SudokuBoard(board));
+                }
+                return;
+            }
+            for (int mask = board.getPossMask(guess); mask != 0 && !search.isDone(); mask &= mask - 1) {
+                search.guesses.increment();
+                SudokuBoard child = worker.copy(depth + 1, board);
+                child.setNumber(guess, SudokuBoard.lowestPoss(mask));
+                worker.scheduler.run(child);
+                search(worker, depth + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+//prints the board every time a number gets filled in
+public class PrintingListener implements SolveListener {
+    @Override
+    public void placed (SudokuBoard board, int index, int number) {
+        board.printBoard();
+    }
+}
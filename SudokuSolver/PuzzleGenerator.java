@@ -0,0 +1,190 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+//builds random puzzles with a single solution: fill a random full grid, then take clues away in a random order
+//as long as the solution stays unique, so every clue left is needed and the puzzle is minimal
+//the generator keeps state so use one per thread, generate(long, int, int) runs many of them in parallel
+public class PuzzleGenerator {
+    //every puzzle is an empty board to start with
+    static final String EMPTY = ".................................................................................";
+
+    //checks that the solution stays unique after every clue taken away
+    private final SolutionCounter counter = new SolutionCounter();
+    //follows the guesses when filling a grid
+    private final TechniqueScheduler propagation = TechniqueScheduler.propagation();
+    //tells how hard a puzzle is
+    private final PuzzleGrader grader = new PuzzleGrader();
+    //the hardest technique the puzzles must need, null for any puzzle, even one the techniques cannot finish
+    private Technique target = null;
+
+    public void setTarget (Technique target) {
+        this.target = target;
+    }
+
+    public Technique getTarget () {
+        return target;
+    }
+
+    //make a minimal puzzle at the target difficulty, everything random comes from the given generator
+    //so the same seed always gives the same puzzle, a target that few puzzles reach takes many attempts
+    public String generate (SplittableRandom random) {
+        while (true) {
+            String puzzle = reduce(fullGrid(random), random);
+            if (target == null || grader.grade(puzzle).getHardest() == target) {
+                return puzzle;
+            }
+        }
+    }
+
+    //a random full grid as an 81 character line
+    public String fullGrid (SplittableRandom random) {
+        return fill(new SudokuBoard(EMPTY), random).toLine();
+    }
+
+    //take away every clue of the puzzle that can go without a second solution showing up, in a random order
+    //a clue that is needed stays needed once more clues are gone, so one pass leaves a minimal puzzle
+    public String reduce (String puzzle, SplittableRandom random) {
+        char[] cases = puzzle.toCharArray();
+        int[] order = new int[cases.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        //shuffle the order the cases are tried in
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        for (int index : order) {
+            char clue = cases[index];
+            if (clue == '.' || clue == '0') {
+                continue;
+            }
+            cases[index] = '.';
+            if (counter.count(new String(cases), 2) != 1) {
+                cases[index] = clue;
+            }
+        }
+        return new String(cases);
+    }
+
+    //fill the board by guessing in the case with the fewest possibilities, trying them in a random order
+    //returns the filled board, null if this branch has no solution
+    private SudokuBoard fill (SudokuBoard state, SplittableRandom random) {
+        propagation.run(state);
+        if (state.hasContradiction()) {
+            return null;
+        }
+        int guess = state.fewestPossIndex();
+        if (guess == -1) {
+            return state.isSolved() ? state : null;
+        }
+        for (int mask = state.getPossMask(guess); mask != 0; ) {
+            //pick one of the possibilities left at random
+            int pick = mask;
+            for (int skip = random.nextInt(SudokuBoard.countPoss(mask)); skip > 0; skip--) {
+                pick &= pick - 1;
+            }
+            pick &= -pick;
+            mask &= ~pick;
+            SudokuBoard child = new SudokuBoard(state);
+            child.setNumber(guess, SudokuBoard.lowestPoss(pick));
+            SudokuBoard full = fill(child, random);
+            if (full != null) {
+                return full;
+            }
+        }
+        return null;
+    }
+
+    //make count puzzles with workers threads, puzzle i always comes from the i-th stream split off the seed,
+    //so the puzzles only depend on the seed, not on the number of workers
+    public static String[] generate (long seed, int count, int workers, Technique target) throws IOException {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Must have at least one worker");
+        }
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[count];
+        for (int i = 0; i < count; i++) {
+            streams[i] = root.split();
+        }
+        String[] puzzles = new String[count];
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                int first = w;
+                //every worker has its own generator and takes every workers-th puzzle
+                tasks.add(pool.submit(() -> {
+                    PuzzleGenerator generator = new PuzzleGenerator();
+                    generator.setTarget(target);
+                    for (int i = first; i < count; i += workers) {
+                        puzzles[i] = generator.generate(streams[i]);
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while generating");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return puzzles;
+    }
+
+    //the basic technique with the given name, like "subset" or "XY-Wing"
+    static Technique technique (String name) {
+        for (BasicTechnique technique : BasicTechnique.values()) {
+            if (technique.getName().equalsIgnoreCase(name)) {
+                return technique;
+            }
+        }
+        throw new IllegalArgumentException("No technique is called " + name);
+    }
+
+    //writes generated puzzles to standard output, one per line
+    //--count n sets how many puzzles, 1 by default
+    //--seed s sets the seed, the same seed always gives the same puzzles
+    //--threads n sets the number of workers, it defaults to one per processor
+    //--target name only keeps puzzles whose hardest technique is the one named, like "block interactions"
+    public static void main (String[] args) throws IOException {
+        int count = 1;
+        long seed = System.nanoTime();
+        int workers = Runtime.getRuntime().availableProcessors();
+        Technique target = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--count") && i + 1 < args.length) {
+                count = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                workers = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--target") && i + 1 < args.length) {
+                target = technique(args[++i]);
+            }
+        }
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+        for (String puzzle : generate(seed, count, workers, target)) {
+            writer.append(puzzle).append(System.lineSeparator());
+        }
+        writer.flush();
+    }
+}
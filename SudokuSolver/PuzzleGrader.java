@@ -0,0 +1,179 @@
+import java.util.List;
+import java.util.Locale;
+
+//grades how hard a puzzle is by solving it with the technique cascade of SudokuSolver
+//it counts the steps where every technique made progress and keeps the hardest technique that was needed,
+//the counting happens in a listener that only grading boards have, so solving without grading costs nothing more
+//the grader keeps state so use one per thread
+public class PuzzleGrader {
+    //the cost given to a puzzle that the techniques cannot finish without guessing
+    static final int SEARCH_COST = 100;
+    //how many steps at the hardest level add a whole point to the rating
+    static final double STEPS_PER_POINT = 10;
+    //the most the steps at the hardest level can add, so a puzzle never reaches the next level
+    static final double MAX_STEP_POINTS = 9.9;
+
+    private final TechniqueScheduler scheduler;
+    //the techniques in the order the scheduler tries them, grades count steps in the same order
+    private final Technique[] order;
+    private final StepListener listener = new StepListener();
+
+    public PuzzleGrader () {
+        this(TechniqueScheduler.standard());
+    }
+
+    //the order of the scheduler must not change while grading, so it must not be adaptive
+    public PuzzleGrader (TechniqueScheduler scheduler) {
+        this.scheduler = scheduler;
+        List<Technique> techniques = scheduler.getOrder();
+        order = techniques.toArray(new Technique[0]);
+    }
+
+    public Grade grade (String puzzle) {
+        return grade(new SudokuBoard(puzzle));
+    }
+
+    //solve the board and grade it, the board ends up solved when it has a solution
+    //a board that breaks a rule is not solved at all and gets a grade that says so
+    public Grade grade (SudokuBoard board) {
+        if (!board.isValid()) {
+            return new Grade(order, new int[order.length], 0, false, false);
+        }
+        listener.steps = new int[order.length];
+        SolveListener previous = board.getListener();
+        board.setListener(listener);
+        SudokuSolver solver = new SudokuSolver(board, false, scheduler);
+        boolean solved;
+        try {
+            solved = solver.solve();
+        } finally {
+            board.setListener(previous);
+        }
+        return new Grade(order, listener.steps, solver.getGuesses(), solved, true);
+    }
+
+    //counts the steps that made progress, the search works on copies of the board so only the steps before it count
+    private class StepListener implements SolveListener {
+        int[] steps;
+
+        @Override
+        public void techniqueFinished (SudokuBoard board, Technique technique, boolean progress) {
+            if (progress) {
+                for (int i = 0; i < order.length; i++) {
+                    if (order[i] == technique) {
+                        steps[i]++;
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    //how hard one puzzle is
+    public static class Grade {
+        private final Technique[] techniques;
+        private final int[] steps;
+        private final long guesses;
+        private final boolean solved;
+        private final boolean valid;
+
+        Grade (Technique[] techniques, int[] steps, long guesses, boolean solved, boolean valid) {
+            this.techniques = techniques;
+            this.steps = steps;
+            this.guesses = guesses;
+            this.solved = solved;
+            this.valid = valid;
+        }
+
+        //the most expensive technique that made progress, null when the puzzle needed a search,
+        //when it needed no step at all because it was already full, or when it has no solution
+        public Technique getHardest () {
+            if (!solved || guesses > 0) {
+                return null;
+            }
+            Technique hardest = null;
+            for (int i = 0; i < techniques.length; i++) {
+                if (steps[i] > 0 && (hardest == null || techniques[i].getCost() > hardest.getCost())) {
+                    hardest = techniques[i];
+                }
+            }
+            return hardest;
+        }
+
+        //how many steps of the technique made progress, 0 for a technique the grader does not use
+        public int getSteps (Technique technique) {
+            for (int i = 0; i < techniques.length; i++) {
+                if (techniques[i] == technique) {
+                    return steps[i];
+                }
+            }
+            return 0;
+        }
+
+        public long getGuesses () {
+            return guesses;
+        }
+
+        public boolean isSolved () {
+            return solved;
+        }
+
+        //false when the givens break a rule, such a puzzle is not graded
+        public boolean isValid () {
+            return valid;
+        }
+
+        //the techniques were not enough and the solution was found by guessing
+        public boolean needsSearch () {
+            return solved && guesses > 0;
+        }
+
+        //the cost of the hardest technique, or SEARCH_COST, plus a tenth of a point for every step at that level
+        //or every guess, so puzzles sort by the hardest thing they need first and by how often they need it next
+        //a puzzle that needed no step is rated 0, one without a solution or with broken givens has no rating, NaN
+        public double getRating () {
+            if (!solved) {
+                return Double.NaN;
+            }
+            if (needsSearch()) {
+                return SEARCH_COST + Math.min(MAX_STEP_POINTS, guesses / STEPS_PER_POINT);
+            }
+            Technique hardest = getHardest();
+            if (hardest == null) {
+                return 0;
+            }
+            return hardest.getCost() + Math.min(MAX_STEP_POINTS, getSteps(hardest) / STEPS_PER_POINT);
+        }
+
+        //the rating, the hardest technique and the steps of every technique that made progress, separated by tabs
+        //like 40.2	subset	sole candidate:31,unique candidate:12,subset:2
+        //a puzzle that needed no step is 0.0	none, and puzzles that cannot be graded are invalid or unsolvable
+        public String toLine () {
+            if (!valid) {
+                return "invalid";
+            }
+            if (!solved) {
+                return "unsolvable";
+            }
+            Technique hardest = getHardest();
+            StringBuilder line = new StringBuilder();
+            line.append(String.format(Locale.ROOT, "%.1f", getRating())).append('\t');
+            if (needsSearch()) {
+                line.append("search");
+            } else {
+                line.append(hardest == null ? "none" : hardest.getName());
+            }
+            boolean first = true;
+            for (int i = 0; i < techniques.length; i++) {
+                if (steps[i] > 0) {
+                    line.append(first ? '\t' : ',').append(techniques[i].getName()).append(':').append(steps[i]);
+                    first = false;
+                }
+            }
+            if (guesses > 0) {
+                line.append(first ? '\t' : ',').append("guesses:").append(guesses);
+            }
+            return line.toString();
+        }
+    }
+}
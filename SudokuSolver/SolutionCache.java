@@ -0,0 +1,131 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+//remembers the solutions of the last puzzles solved, keyed on their canonical form, so a puzzle that is the same as
+//an earlier one up to relabelling, swapping bands, stacks, rows or columns, or transposing is not solved again
+//solutions are stored in the canonical orientation and turned back into the orientation of every puzzle that asks
+//the cache holds a bounded number of entries and drops the least recently used one, it can be shared by every thread
+//finding the canonical form costs about as much as solving with dancing links, so a puzzle is only canonicalized when
+//a puzzle with the same fingerprint was seen lately, the first one of every fingerprint is solved without the cache
+//puzzles without a canonical form, see Canonicalizer.MAX_TIED, are solved without going through the cache
+public class SolutionCache {
+    private final int capacity;
+    //in access order, so the first entry is always the least recently used one
+    private final Map<String, String> entries;
+    //the fingerprints of the last puzzles seen, in access order as well
+    private final Map<Long, Boolean> fingerprints;
+    //every thread canonicalizes with its own scratch space
+    private final ThreadLocal<Canonicalizer> canonicalizers = ThreadLocal.withInitial(Canonicalizer::new);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    public SolutionCache (int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Must hold at least one solution");
+        }
+        this.capacity = capacity;
+        entries = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry (Map.Entry<String, String> eldest) {
+                if (size() > SolutionCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        fingerprints = new LinkedHashMap<Long, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry (Map.Entry<Long, Boolean> eldest) {
+                return size() > SolutionCache.this.capacity;
+            }
+        };
+    }
+
+    //the solution of the 81 character puzzle, null if it has none
+    //on a miss the solver solves the puzzle itself, so a board that is already parsed can be reused, and returns its
+    //solution as a line, or null, which is stored in the canonical orientation
+    //puzzles without a solution are not remembered
+    public String solve (String puzzle, Supplier<String> solver) {
+        Canonicalizer canonicalizer = canonicalizers.get();
+        if (firstSeen(canonicalizer.fingerprint(puzzle))) {
+            //nothing seen lately can be the same puzzle, so it cannot be in the cache
+            misses.increment();
+            return solver.get();
+        }
+        CanonicalForm form = canonicalizer.canonicalize(puzzle);
+        if (form == null) {
+            skipped.increment();
+            return solver.get();
+        }
+        String solution = get(form.getPuzzle());
+        if (solution != null) {
+            hits.increment();
+            return form.fromCanonical(solution);
+        }
+        misses.increment();
+        //solving happens outside the lock, two threads missing on the same puzzle both solve it
+        solution = solver.get();
+        if (solution == null) {
+            return null;
+        }
+        put(form.getPuzzle(), form.toCanonical(solution));
+        return solution;
+    }
+
+    //remember the fingerprint, true if it was not seen lately
+    private synchronized boolean firstSeen (long fingerprint) {
+        return fingerprints.put(fingerprint, Boolean.TRUE) == null;
+    }
+
+    private synchronized String get (String canonical) {
+        return entries.get(canonical);
+    }
+
+    private synchronized void put (String canonical, String solution) {
+        entries.put(canonical, solution);
+    }
+
+    public synchronized int size () {
+        return entries.size();
+    }
+
+    public int getCapacity () {
+        return capacity;
+    }
+
+    public long getHits () {
+        return hits.sum();
+    }
+
+    public long getMisses () {
+        return misses.sum();
+    }
+
+    public long getEvictions () {
+        return evictions.sum();
+    }
+
+    //how many puzzles were solved without the cache because they have no canonical form
+    public long getSkipped () {
+        return skipped.sum();
+    }
+
+    //the share of lookups that found a solution, 0 before the first one
+    public double getHitRate () {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    //one line with the hits, the hit rate, how full the cache is and how many puzzles did not go through it
+    public String summary () {
+        long hit = hits.sum();
+        return String.format("cache hits %d/%d (%.1f%%), %d/%d entries, %d evictions, %d skipped",
+                hit, hit + misses.sum(), 100 * getHitRate(), size(), capacity, evictions.sum(), skipped.sum());
+    }
+}
@@ -0,0 +1,81 @@
+//counts the solutions of a puzzle up to a limit, a limit of 2 is enough to tell if a puzzle has exactly one
+//every guess is followed through with the techniques of a scheduler and the search keeps one board per depth,
+//so a counter reused for many puzzles does not allocate, the counter keeps state so use one per thread
+public class SolutionCounter {
+    private final TechniqueScheduler scheduler;
+    //the board of every depth of the search, grown when a search goes deeper than any before
+    private SudokuBoard[] stack = new SudokuBoard[0];
+
+    public SolutionCounter () {
+        this(TechniqueScheduler.propagation());
+    }
+
+    //any scheduler works since the techniques never assume the puzzle has a single solution
+    public SolutionCounter (TechniqueScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    //count the solutions of the puzzle, stopping as soon as we reach the limit
+    public int count (String puzzle, int limit) {
+        return count(new SudokuBoard(puzzle), limit);
+    }
+
+    //same as count(String, int) for a board, the board itself is left untouched
+    public int count (SudokuBoard board, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Must count up to at least one solution");
+        }
+        if (!board.isValid()) {
+            return 0;
+        }
+        //the stack holds boards of the size of the last puzzle, start a new one for a puzzle of another size
+        if (stack.length > 0 && stack[0].getSize() != board.getSize()) {
+            stack = new SudokuBoard[0];
+        }
+        copy(0, board);
+        return count(0, limit);
+    }
+
+    //check if the puzzle has exactly one solution
+    public boolean isUnique (String puzzle) {
+        return count(puzzle, 2) == 1;
+    }
+
+    public boolean isUnique (SudokuBoard board) {
+        return count(board, 2) == 1;
+    }
+
+    //count the solutions of the board at the depth, guessing in the case with the fewest possibilities
+    private int count (int depth, int limit) {
+        SudokuBoard state = stack[depth];
+        scheduler.run(state);
+        if (state.hasContradiction()) {
+            return 0;
+        }
+        int guess = state.fewestPossIndex();
+        //a full board is a solution unless it breaks a rule
+        if (guess == -1) {
+            return state.isSolved() ? 1 : 0;
+        }
+        int found = 0;
+        for (int mask = state.getPossMask(guess); mask != 0 && found < limit; mask &= mask - 1) {
+            SudokuBoard child = copy(depth + 1, state);
+            child.setNumber(guess, SudokuBoard.lowestPoss(mask));
+            found += count(depth + 1, limit - found);
+        }
+        return found;
+    }
+
+    //overwrite the board of the depth with the other board and return it
+    private SudokuBoard copy (int depth, SudokuBoard other) {
+        if (depth == stack.length) {
+            SudokuBoard[] newStack = new SudokuBoard[depth + 1];
+            System.arraycopy(stack, 0, newStack, 0, depth);
+            newStack[depth] = new SudokuBoard(other);
+            stack = newStack;
+        } else {
+            stack[depth].copyFrom(other);
+        }
+        return stack[depth];
+    }
+}
@@ -0,0 +1,23 @@
+//receives what happens on a board while it gets solved
+//every method does nothing by default, and boards start with NONE so the calls cost nothing when nobody listens
+public interface SolveListener {
+    //the listener boards have until another one is set
+    SolveListener NONE = new SolveListener() {
+    };
+
+    //a number was filled in, index is x + size*y like the string input
+    default void placed (SudokuBoard board, int index, int number) {
+    }
+
+    //possibilities were removed from a case, removed is the mask of the removed numbers
+    default void eliminated (SudokuBoard board, int index, int removed) {
+    }
+
+    //the scheduler is about to apply a technique
+    default void techniqueStarted (SudokuBoard board, Technique technique) {
+    }
+
+    //the scheduler applied a technique, progress tells if it did anything
+    default void techniqueFinished (SudokuBoard board, Technique technique, boolean progress) {
+    }
+}
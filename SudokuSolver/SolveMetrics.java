@@ -0,0 +1,81 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+//what every technique did during one solve, the scheduler fills it in while the solve runs
+//it belongs to the thread doing the solve, TechniqueMetrics adds finished solves up across threads
+public class SolveMetrics {
+    private final List<String> techniques;
+    //indexed like techniques
+    private final long[] invocations;
+    private final long[] nanos;
+    private final long[] placements;
+    private final long[] eliminations;
+    //how many times the search had to guess a number
+    private long guesses = 0;
+    private final long start = System.nanoTime();
+    private long solveNanos = -1;
+
+    SolveMetrics (String[] techniques) {
+        this.techniques = Collections.unmodifiableList(Arrays.asList(techniques.clone()));
+        invocations = new long[techniques.length];
+        nanos = new long[techniques.length];
+        placements = new long[techniques.length];
+        eliminations = new long[techniques.length];
+    }
+
+    //one application of the technique at index
+    void record (int technique, long nanos, long placements, long eliminations) {
+        invocations[technique]++;
+        this.nanos[technique] += nanos;
+        this.placements[technique] += placements;
+        this.eliminations[technique] += eliminations;
+    }
+
+    void guessed () {
+        guesses++;
+    }
+
+    void finish () {
+        solveNanos = System.nanoTime() - start;
+    }
+
+    //the names of the techniques, in the order they were registered
+    public List<String> getTechniques () {
+        return techniques;
+    }
+
+    public long getInvocations (String technique) {
+        return invocations[indexOf(technique)];
+    }
+
+    //wall time spent in the technique, in nanoseconds
+    public long getNanos (String technique) {
+        return nanos[indexOf(technique)];
+    }
+
+    public long getPlacements (String technique) {
+        return placements[indexOf(technique)];
+    }
+
+    public long getEliminations (String technique) {
+        return eliminations[indexOf(technique)];
+    }
+
+    public long getGuesses () {
+        return guesses;
+    }
+
+    //wall time of the whole solve in nanoseconds, -1 while it is still running
+    public long getSolveNanos () {
+        return solveNanos;
+    }
+
+    private int indexOf (String technique) {
+        int index = techniques.indexOf(technique);
+        if (index == -1) {
+            throw new IllegalArgumentException("No technique named " + technique);
+        }
+        return index;
+    }
+}
@@ -1,1205 +1,1279 @@
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.nio.ByteBuffer;
 
 //mimics the Sudoku board
+//the board has boxes of boxSize by boxSize cases and size = boxSize * boxSize cases per side, 9 for the usual board
+//cases are addressed by their index x + size*y, the same order as the string input, and sets of cases inside a row,
+//column or box are masks where bit i is the i-th case of the house, so solving does not allocate
+//numbers and positions fit in the bits of an int up to 25x25 boards, and the masks of houses fit in a single long
+//up to 16x16 boards, which keeps the usual board on the fastest path
+//the Tuple methods are kept for callers that work with coordinates
 public class SudokuBoard {
-    //x is the first coordinate
-    //y is the second coordinate
-    private int[][] board = new int[9][9];
-    //arrays of rows, columns and boxes
-    private Row[] rows = new Row[9];
-    private Column[] cols = new Column[9];
-    private Box[][] boxes = new Box[3][3];
+    //which cases make up every house, shared by every board of the same size
+    private final BoardGeometry geometry;
+    //cases per side, also the number of cases of a house and the biggest number
+    private final int size;
+    private final int cells;
+    //every number of the board possible
+    private final int allPoss;
+    //how many longs a mask with a bit per house takes
+    private final int houseWords;
+    //the number in every case stored at x + size*y, 0 when the case is empty
+    private final int[] board;
     public int recursive = 0;
-
-    //board of possibilities, if an already known number, we give it an empty array
-    private Integer[][][] boardPoss = new Integer[9][9][];
+    //how many possibilities were removed from the board so far, techniques use it to tell if they made progress
+    private long eliminations = 0;
+    //how many numbers were filled in through setNumber
+    private long placements = 0;
+    //told about every number filled in and every possibility removed
+    private SolveListener listener = SolveListener.NONE;
+
+    //board of possibilities, one size bit mask per case stored at x + size*y
+    //bit n - 1 is set if n is still possible, an already known number gets an empty mask
+    private final int[] boardPoss;
+
+    //everything about the rows, columns and boxes, one entry per house numbered like the geometry
+    //the mask of the numbers already filled in the house
+    private final int[] present;
+    //how many places a specific number can appear in a house, at size*house + n - 1
+    private final int[] entryCounter;
+    //where a specific number can appear in a house, bit i is the i-th case of the house, at size*house + n - 1
+    private final int[] entryPositions;
+    //mask of the numbers block interactions already purged with in a house, to avoid repeats
+    private final int[] purgedNumbers;
+
+    //the techniques that look at one house at a time keep a queue of the houses that changed since they last looked,
+    //bit h of a queue is set when house h lost a possibility, so a step only examines what the last steps touched
+    //queue q takes the houseWords longs from q * houseWords
+    private static final int UNIQUE_QUEUE = 0;
+    private static final int BLOCK_QUEUE = 1;
+    private static final int SUBSET_QUEUE = 2;
+    private static final int QUEUES = 3;
+    private final long[] dirtyHouses;
+    //fish looks at one number at a time, bit n - 1 is set when n lost a possibility since fish last looked at it
+    private int fishNumbers;
+
+    //the strong links the wings and chains follow, kept up to date as possibilities are removed instead of being rebuilt
+    //a strong link joins two possibilities when at least one of them is true, a weak link when at most one of them is
+    //bit h of the mask at (n - 1) * houseWords is set when n can only go in 2 places of house h, they are strongly linked
+    private final long[] strongHouses;
+    //bit i % 64 of the word i / 64 is set when case i has exactly 2 possibilities, they are strongly linked
+    private final long[] bivalueCases;
+    //removing possibilities only takes links and targets away, so the wings, the coloring and the chains can only
+    //find something new after new links show up, each of them remembers if some did since it last looked
+    //bit n - 1 is set when a house got down to 2 places for n since the coloring last looked at n
+    private int colorNumbers;
+    //a bit per technique, set when a case got down to 2 possibilities (both wings and the chains), to 3 (XYZ-Wing),
+    //or a house got down to 2 places for a number (chains)
+    private static final int XY_WING_LINKS = 1;
+    private static final int XYZ_WING_LINKS = 2;
+    private static final int CHAIN_LINKS = 4;
+    private int newLinks;
+    //where the chains start looking, right where they last purged, the starts before it were just found to lead
+    //nowhere so they are looked at last
+    private int chainsFrom = 0;
+    //scratch space of the coloring and the chains, allocated the first time they run and never copied
+    private int[] chainMarks;
+    private int[] chainQueue;
+    private int chainStamp = 0;
 
     //region Constructors, initializers, initial purge
-    //takes input a 2d array of tuples, the first coordinate represents what number to fill in
+    //an empty board of the geometry, every house starts dirty so the first pass of every technique looks at all of them
+    private SudokuBoard(BoardGeometry geometry) {
+        this.geometry = geometry;
+        size = geometry.size;
+        cells = geometry.cells;
+        allPoss = (1 << size) - 1;
+        houseWords = (geometry.houses + 63) >> 6;
+        board = new int[cells];
+        boardPoss = new int[cells];
+        present = new int[geometry.houses];
+        entryCounter = new int[geometry.houses * size];
+        entryPositions = new int[geometry.houses * size];
+        purgedNumbers = new int[geometry.houses];
+        dirtyHouses = new long[QUEUES * houseWords];
+        for (int queue = 0; queue < QUEUES; queue++) {
+            for (int house = 0; house < geometry.houses; house++) {
+                dirtyHouses[queue * houseWords + (house >> 6)] |= 1L << house;
+            }
+        }
+        strongHouses = new long[size * houseWords];
+        bivalueCases = new long[(cells + 63) >> 6];
+        fishNumbers = allPoss;
+        colorNumbers = allPoss;
+        newLinks = XY_WING_LINKS | XYZ_WING_LINKS | CHAIN_LINKS;
+    }
+
+    //takes input a 2d array of tuples, the first coordinate represents what number to fill in, always a 9x9 board
     public SudokuBoard(Tuple[][] inputValues) {
+        this(BoardGeometry.NINE);
         if (inputValues.length != 9) {
             throw new IllegalArgumentException("Must have 9 rows for input");
         }
         //loop throw each row
-        for (int number = 0; number < 9; number++) {
+        for (int number = 0; number < size; number++) {
             //we want to make sure we don't have an null array
             if (inputValues[number] != null) {
                 for (Tuple coordinate : inputValues[number]) {
-                    board[coordinate.x][coordinate.y] = number + 1;
+                    board[possIndex(coordinate.x, coordinate.y)] = number + 1;
                 }
             }
         }
-        //create box and row objects
-        createRowsColumnsBox();
+        //fill the masks of the numbers in every house
+        createPresentNumbers();
         //we create the board of possibilities
         createPossBoard();
+        createEntryCounters();
+        createLinks();
         firstPurge();
     }
 
-    //take input a long 81 character string that represent all cases
+    //take input a long 81 character string that represent all cases, or 256 for a 16x16 board and 625 for 25x25
+    //numbers above 9 are letters, A for 10 up to P for 25
     public SudokuBoard(String inputString) {
-        //we want to make sure we input an 81 character string
-        if (inputString.length() != 81) {
-            throw new IllegalArgumentException("Must input a string of 81 characters");
-        }
-        for (int i = 0; i < 81; i++) {
-            char input =  inputString.charAt(i);
-            if (input == '.') {
-                input = '0';
+        //the length tells the size of the board
+        this(BoardGeometry.forCells(inputString.length()));
+        for (int i = 0; i < cells; i++) {
+            readCase(i, inputString.charAt(i));
+        }
+        //fill the masks of the numbers in every house
+        createPresentNumbers();
+        //we create the board of possibilities
+        createPossBoard();
+        createEntryCounters();
+        createLinks();
+        firstPurge();
+    }
+
+    //take input 81 bytes of the buffer starting at offset, in the same format as the string constructor
+    public SudokuBoard(ByteBuffer buffer, int offset) {
+        this(buffer, offset, 81);
+    }
+
+    //take input length bytes of the buffer starting at offset, the length tells the size of the board like for strings
+    //this reads straight from a mapped file without making a string for every puzzle
+    public SudokuBoard(ByteBuffer buffer, int offset, int length) {
+        this(BoardGeometry.forCells(length));
+        if (offset < 0 || offset + cells > buffer.limit()) {
+            throw new IllegalArgumentException("Must input " + cells + " bytes");
+        }
+        for (int i = 0; i < cells; i++) {
+            readCase(i, (char) buffer.get(offset + i));
+        }
+        //fill the masks of the numbers in every house
+        createPresentNumbers();
+        //we create the board of possibilities
+        createPossBoard();
+        createEntryCounters();
+        createLinks();
+        firstPurge();
+    }
+
+    //take input the number of every case, 0 when empty, 81 of them or 256 and 625 for the other sizes
+    //this is how packed files load a board without going through characters
+    public SudokuBoard(int[] numbers) {
+        this(BoardGeometry.forCells(numbers.length));
+        for (int i = 0; i < cells; i++) {
+            if (numbers[i] < 0 || numbers[i] > size) {
+                throw new IllegalArgumentException("Cases must be a number from 1 to " + size + ", 0 when empty");
             }
-            //we scale it up to what we want
-            int x = i % 9;
-            int y = i / 9;
-            //we then convert the ascii value to the actual integers
-            board[x][y] = (input) - '0';
-        }
-        //create box and row objects
-        createRowsColumnsBox();
+            board[i] = numbers[i];
+        }
+        //fill the masks of the numbers in every house
+        createPresentNumbers();
         //we create the board of possibilities
         createPossBoard();
+        createEntryCounters();
+        createLinks();
         firstPurge();
     }
 
-    private void createRowsColumnsBox () {
-        for (int i = 0; i < 9; i++) {
-            rows[i] = new Row(this, i);
-            cols[i] = new Column(this, i);
-            int x = i%3;
-            int y = i/3;
-            Tuple coordinate = new Tuple(x,y);
-            boxes[x][y] = new Box(this, coordinate);
+    //takes a copy of another board, so we can try numbers without touching the original
+    public SudokuBoard(SudokuBoard other) {
+        this(other.geometry);
+        copyFrom(other);
+    }
+
+    //set the case at index i of an input line from its character
+    private void readCase (int i, char input) {
+        int number = number(input);
+        if (number < 0 || number > size) {
+            throw new IllegalArgumentException("Cases must be a number from 1 to " + symbol(size) + ", 0 or . when empty");
         }
+        board[i] = number;
     }
 
-    //this method initializes all possibilities and initializes an array for each entry
-    private void createPossBoard() {
-        //iterate through all the arrays
-        for (int x = 0; x < 9; x++) {
-            for (int y = 0; y < 9; y++) {
-                //if its empty
-                //else we already have a fixed value
-                if (board[x][y] == 0) {
-                    //we have to check all possibilities, array with 1,2,3,...9
-                    boardPoss[x][y] = new Integer[9];
-                    for (int i = 1; i <= 9; i++) {
-                        boardPoss[x][y][i - 1] = i;
-                    }
-                } else {
-                    //we create an empty array
-                    boardPoss[x][y] = new Integer[0];
+    private void createPresentNumbers () {
+        for (int index = 0; index < cells; index++) {
+            if (board[index] != 0) {
+                for (int house : geometry.cellHouses[index]) {
+                    present[house] |= bit(board[index]);
                 }
-
             }
         }
+    }
 
+    //this method initializes all possibilities and initializes a mask for each entry
+    private void createPossBoard() {
+        //iterate through all the cases
+        for (int index = 0; index < cells; index++) {
+            //if its empty every number is possible
+            //else we already have a fixed value and nothing is possible
+            boardPoss[index] = board[index] == 0 ? allPoss : 0;
+        }
     }
 
-    //purge all rows and columns
-    private void firstPurge () {
-        for (Row row :rows) {
-            row.purgeRow();
+    //count where every possibility can appear in each row, column and box, the purges keep it in sync afterwards
+    private void createEntryCounters () {
+        for (int index = 0; index < cells; index++) {
+            for (int kind = 0; kind < 3; kind++) {
+                int entries = size * geometry.cellHouses[index][kind];
+                int position = geometry.cellPositions[index][kind];
+                for (int mask = boardPoss[index]; mask != 0; mask &= mask - 1) {
+                    int n = Integer.numberOfTrailingZeros(mask);
+                    entryPositions[entries + n] |= 1 << position;
+                    entryCounter[entries + n]++;
+                }
+            }
         }
-        for (Column col :cols) {
-            col.purgeCol();
+    }
+
+    //find the strong links of the board once, removeEntries keeps them in sync afterwards
+    private void createLinks () {
+        for (int house = 0; house < geometry.houses; house++) {
+            for (int n = 1; n <= size; n++) {
+                if (getEntryCounter(house, n) == 2) {
+                    strongHouses[(n - 1) * houseWords + (house >> 6)] |= 1L << house;
+                }
+            }
         }
-        for (int x = 0; x < 3; x++) {
-            for (int y = 0; y < 3; y++) {
-                Box box = boxes[x][y];
-                box.purgeBox();
+        for (int index = 0; index < cells; index++) {
+            if (countPoss(boardPoss[index]) == 2) {
+                bivalueCases[index >> 6] |= 1L << index;
             }
         }
     }
+
+    //purge all rows, columns and boxes of the numbers inside them, package private so the benchmarks can time it on its own
+    void firstPurge () {
+        for (int house = 0; house < geometry.houses; house++) {
+            purgeHouse(house, present[house], 0);
+        }
+    }
     //endregion
 
     //method returns the number at the input coordinate
     public int getNumber (Tuple coordinates) {
-        return board[coordinates.x][coordinates.y];
+        return board[possIndex(coordinates.x, coordinates.y)];
     }
 
     //method that sets the number on the board and purges the number from the possibilities
     public void setNumber (Tuple coordinate, int number) {
-        board[coordinate.x][coordinate.y] = number;
-        //set an empty array to the spot
-        boardPoss[coordinate.x][coordinate.y] = new Integer[0];
-        //update the rows and columns and boxes objects + purge
-        rows[coordinate.y].row[coordinate.x] = number;
-        rows[coordinate.y].purgeRow(number);
-        cols[coordinate.x].col[coordinate.y] = number;
-        cols[coordinate.x].purgeCol(number);
-        boxes[coordinate.x/3][coordinate.y/3].box[coordinate.x%3][coordinate.y%3] = number;
-        boxes[coordinate.x/3][coordinate.y/3].purgeBox(number);
+        setNumber(possIndex(coordinate.x, coordinate.y), number);
     }
 
-    public Integer[] getPoss (Tuple coordinate) {
-        return boardPoss[coordinate.x][coordinate.y];
-    }
-
-    //region inner class row, column and box to handle data better
-    private class Row {
-        final int rowNumber;
-        int[] row = new int[9];
-        SudokuBoard theBoard;
-        //this attribute keeps track of how many places a specific number can appear
-        int[] entryCounter = new int[9];
-
-        //contains a list of purgedNumbers to avoid repeats
-        List<Integer> purgedNumbers = new ArrayList<>();
-
-        //takes a copy of the row
-        Row(SudokuBoard theBoard, int rowNumber) {
-            this.rowNumber = rowNumber;
-            this.theBoard = theBoard;
-            //create a copy of the row
-            for (int x = 0; x < 9; x++) {
-                row[x] = theBoard.board[x][rowNumber];
-            }
-        }
-
-        //update and return the counter of entries
-        int[] getEntryCounter () {
-            //reset the array all back to zero
-            entryCounter = new int[9];
-            for (int n = 1; n <= 9; n++) {
-                for (int x = 0; x < 9; x++) {
-                    if (containsInt(boardPoss[x][rowNumber], n)) {
-                        entryCounter[n - 1]++;
-                    }
-                }
-            }
-            return entryCounter;
-        }
-
-        //update and return the specifc entry at entry counter
-        int getEntryCounter (int n) {
-            entryCounter[n - 1] = 0;
-            for (int x = 0; x < 9; x++) {
-                if (containsInt(boardPoss[x][rowNumber], n)) {
-                    entryCounter[n - 1]++;
-                }
-            }
+    //same as setNumber(Tuple, int) for the case at index x + size*y
+    public void setNumber (int index, int number) {
+        board[index] = number;
+        //set an empty mask to the spot
+        cleanCase(index, 0);
+        //the number is now in its row, column and box
+        for (int house : geometry.cellHouses[index]) {
+            present[house] |= bit(number);
+        }
+        //purge the number from every case that shares a house with this one
+        for (int peer : geometry.peers[index]) {
+            purgeCase(peer, bit(number));
+        }
+        placements++;
+        listener.placed(this, index, number);
+    }
 
-            return entryCounter[n - 1];
-        }
+    //method returns the number at the index x + size*y
+    public int getNumber (int index) {
+        return board[index];
+    }
 
-        //region Purge Methods
-        //check if a number is inside the row
-        boolean isNumberInside(int number) {
-            return containsInt(row, number);
-        }
+    public SolveListener getListener () {
+        return listener;
+    }
 
-        //return an array of all present numbers
-        Integer[] presentNumbers() {
-            List<Integer> numbersInside = new ArrayList<>();
-            //go through all numbers from 1 to 9
-            for (int n = 1; n <= 9; n++) {
-                if (isNumberInside(n)) {
-                    numbersInside.add(n);
-                }
-            }
-            //convert to array
-            Integer[] arrNumbers = new Integer[numbersInside.size()];
-            arrNumbers = numbersInside.toArray(arrNumbers);
-            return arrNumbers;
-        }
-
-        //purging every number insider when taking no input
-        void purgeRow() {
-            Integer[] removeNumbers = presentNumbers();
-            for (int index = 0; index < 9; index++) {
-                Tuple point = new Tuple(index, rowNumber);
-                purgeCase(point, removeNumbers);
-            }
-        }
+    //the listener is not copied with the board, copies start with none
+    public void setListener (SolveListener listener) {
+        this.listener = listener == null ? SolveListener.NONE : listener;
+    }
 
-        //precise purging of a specific number
-        void purgeRow(int removeNumber) {
-            Integer[] removeNumbers = new Integer[1];
-            removeNumbers[0] = removeNumber;
-            for (int index = 0; index < 9; index++) {
-                Tuple point = new Tuple(index, rowNumber);
-                purgeCase(point, removeNumbers);
-            }
-        }
+    //overwrite this board with the state of another one of the same size, everything is copied so they stay independent
+    public void copyFrom (SudokuBoard other) {
+        if (other.geometry != geometry) {
+            throw new IllegalArgumentException("Must copy a board of the same size");
+        }
+        System.arraycopy(other.board, 0, board, 0, cells);
+        System.arraycopy(other.boardPoss, 0, boardPoss, 0, cells);
+        System.arraycopy(other.present, 0, present, 0, present.length);
+        System.arraycopy(other.entryCounter, 0, entryCounter, 0, entryCounter.length);
+        System.arraycopy(other.entryPositions, 0, entryPositions, 0, entryPositions.length);
+        System.arraycopy(other.purgedNumbers, 0, purgedNumbers, 0, purgedNumbers.length);
+        System.arraycopy(other.dirtyHouses, 0, dirtyHouses, 0, dirtyHouses.length);
+        System.arraycopy(other.strongHouses, 0, strongHouses, 0, strongHouses.length);
+        System.arraycopy(other.bivalueCases, 0, bivalueCases, 0, bivalueCases.length);
+        fishNumbers = other.fishNumbers;
+        colorNumbers = other.colorNumbers;
+        newLinks = other.newLinks;
+        chainsFrom = other.chainsFrom;
+        recursive = other.recursive;
+        eliminations = other.eliminations;
+        placements = other.placements;
+    }
 
-        //even softer precise purging of a specific number
-        void purgeRow(int removeNumber, Tuple[] safe) {
-            Integer[] removeNumbers = new Integer[1];
-            removeNumbers[0] = removeNumber;
-            //we create an int array that contain the safe indexes
-            int[] safeIndex = new int[safe.length];
-            for (int i = 0; i < safe.length; i++) {
-                safeIndex[i] = safe[i].x;
-            }
-            for (int index = 0; index < 9; index++) {
-                //if the index is NOT safe or not in the array
-                if (!containsInt(safeIndex, index)) {
-                    Tuple point = new Tuple(index, rowNumber);
-                    purgeCase(point, removeNumbers);
-                }
-            }
+    //returns the possibilities of a case in increasing order, allocates so keep it out of hot loops
+    public Integer[] getPoss (Tuple coordinate) {
+        int mask = getPossMask(coordinate);
+        Integer[] poss = new Integer[countPoss(mask)];
+        for (int i = 0; mask != 0; mask &= mask - 1, i++) {
+            poss[i] = lowestPoss(mask);
         }
-        //endregion
+        return poss;
+    }
 
-        //method returns the coordinates at which a specific number can be in a row
-        Tuple[] numPoss (int num) {
-            Tuple[] targets = new Tuple[9];
-            for (int x = 0; x < 9; x++) {
-                Tuple point = new Tuple(x, rowNumber);
-                targets[x] = point;
-            }
-            return numPossTargeted(num, targets);
-        }
+    //how many possibilities were removed since the board was created
+    public long getEliminations () {
+        return eliminations;
+    }
 
+    //how many numbers were filled in since the board was created
+    public long getPlacements () {
+        return placements;
     }
 
-    private class Column {
-        final int colNumber;
-        int[] col = new int[9];
-        SudokuBoard theBoard;
-        //this attribute keeps track of how many places a specific number can appear
-        int[] entryCounter = new int[9];
+    //cases per side of the board, 9 for the usual board
+    public int getSize () {
+        return size;
+    }
 
-        //contains a list of purgedNumbers to avoid repeats
-        List<Integer> purgedNumbers = new ArrayList<>();
+    //side of a box, 3 for the usual board
+    public int getBoxSize () {
+        return geometry.boxSize;
+    }
 
-        //takes a copy of the col
-        Column(SudokuBoard theBoard, int colNumber) {
-            this.colNumber = colNumber;
-            this.theBoard = theBoard;
-            //create a copy of the col, shallow copy not a reference
-            System.arraycopy(theBoard.board[colNumber], 0, col, 0, 9);
-        }
+    //returns the mask of possibilities of a case, bit n - 1 is set if n is possible
+    public int getPossMask (Tuple coordinate) {
+        return boardPoss[possIndex(coordinate.x, coordinate.y)];
+    }
 
-        //update and get the entry counter array
-        int[] getEntryCounter () {
-            //reset the array all back to zero
-            entryCounter = new int[9];
-            for (int n = 1; n <= 9; n++) {
-                for (int y = 0; y < 9; y++) {
-                    if (containsInt(boardPoss[colNumber][y], n)) {
-                        entryCounter[n - 1]++;
-                    }
-                }
-            }
-            return entryCounter;
-        }
+    //same as getPossMask(Tuple) for the case at index x + size*y
+    public int getPossMask (int index) {
+        return boardPoss[index];
+    }
 
-        //return the specific value of the array at an index
-        int getEntryCounter (int n) {
-            entryCounter[n - 1] = 0;
-            for (int y = 0; y < 9; y++) {
-                if (containsInt(boardPoss[colNumber][y], n)) {
-                    entryCounter[n - 1]++;
-                }
-            }
+    //region Houses
+    //index on the board of the case at a position of the house
+    private int cell (int house, int position) {
+        return geometry.houseCells[house][position];
+    }
 
-            return entryCounter[n - 1];
-        }
+    //check if a number is already filled in the house
+    private boolean isNumberInside (int house, int number) {
+        return (present[house] & bit(number)) != 0;
+    }
 
+    //how many places the number can still go in the house
+    private int getEntryCounter (int house, int number) {
+        return entryCounter[size * house + number - 1];
+    }
 
-        //region Purge Methods
-        //check if a specific number is inside the column
-        boolean isNumberCol(int number) {
-            return containsInt(col, number);
-        }
+    //the positions of the house where the number can still go
+    private int getEntryPositions (int house, int number) {
+        return entryPositions[size * house + number - 1];
+    }
 
-        //return an array of all present numbers
-        Integer[] presentNumbers() {
-            List<Integer> numbersInside = new ArrayList<>();
-            //go through all numbers from 1 to 9
-            for (int n = 1; n <= 9; n++) {
-                if (isNumberCol(n)) {
-                    numbersInside.add(n);
-                }
-            }
-            //convert to array
-            Integer[] arrNumbers = new Integer[numbersInside.size()];
-            arrNumbers = numbersInside.toArray(arrNumbers);
-            return arrNumbers;
-        }
-
-        //purging every number inside when taking no input
-        void purgeCol() {
-            Integer[] removeNumbers = presentNumbers();
-            for (int index = 0; index < 9; index++) {
-                Tuple point = new Tuple(colNumber, index);
-                purgeCase(point, removeNumbers);
+    //take the next house out of a queue, -1 once the queue is empty
+    private int nextDirty (int queue) {
+        for (int word = 0; word < houseWords; word++) {
+            long houses = dirtyHouses[queue * houseWords + word];
+            if (houses != 0) {
+                dirtyHouses[queue * houseWords + word] = houses & houses - 1;
+                return 64 * word + Long.numberOfTrailingZeros(houses);
             }
         }
+        return -1;
+    }
 
-        //precise purging of a specific number
-        void purgeCol(int removeNumber) {
-            Integer[] removeNumbers = new Integer[1];
-            removeNumbers[0] = removeNumber;
-            for (int index = 0; index < 9; index++) {
-                Tuple point = new Tuple(colNumber, index);
-                purgeCase(point, removeNumbers);
+    //purge a mask of numbers from every case of the house, the cases in the safe mask keep them
+    private void purgeHouse (int house, int removeNumbers, int safe) {
+        int[] cells = geometry.houseCells[house];
+        for (int position = 0; position < size; position++) {
+            //if the position is NOT safe
+            if ((safe & 1 << position) == 0) {
+                purgeCase(cells[position], removeNumbers);
             }
         }
+    }
+    //endregion
 
-        //soft purge saving a few indexes
-        void purgeCol(int removeNumber, Tuple[] safe) {
-            Integer[] removeNumbers = new Integer[1];
-            removeNumbers[0] = removeNumber;
-            //we create an int array that contain the safe indexes
-            int[] safeIndex = new int[safe.length];
-            for (int i = 0; i < safe.length; i++) {
-                safeIndex[i] = safe[i].y;
-            }
-            for (int index = 0; index < 9; index++) {
-                if (!containsInt(safeIndex,index)) {
-                    Tuple point = new Tuple(colNumber, index);
-                    purgeCase(point, removeNumbers);
-                }
-            }
-        }
-        //endregion
+    //region Possibility masks
+    //index of a case in the flat possibility board
+    private int possIndex (int x, int y) {
+        return x + size * y;
+    }
 
-        //method returns the coordinates at which a specific number can be in a column
-        Tuple[] numPoss (int num) {
-            Tuple[] targets = new Tuple[9];
-            for (int y = 0; y < 9; y++) {
-                Tuple point = new Tuple(colNumber, y);
-                targets[y] = point;
-            }
-            return numPossTargeted(num, targets);
-        }
+    //the mask with only the bit of the number set
+    static int bit (int number) {
+        return 1 << (number - 1);
+    }
 
+    //how many numbers are possible in the mask
+    static int countPoss (int mask) {
+        return Integer.bitCount(mask);
     }
 
-    private class Box {
-        final Tuple coordinate;
-        int[][] box = new int[3][3];
-        SudokuBoard theBoard;
-        //this attribute keeps track of how many places a specific number can appear
-        int[] entryCounter = new int[9];
+    //the smallest possible number in a non empty mask
+    static int lowestPoss (int mask) {
+        return Integer.numberOfTrailingZeros(mask) + 1;
+    }
 
-        //contains a list of purgedNumbers to avoid repeats
-        List<Integer> purgedNumbers = new ArrayList<>();
+    //check if the number is possible in the mask
+    static boolean containsPoss (int mask, int number) {
+        return (mask & bit(number)) != 0;
+    }
+    //endregion
 
-        //get copy of particular box
-        Box(SudokuBoard theBoard, Tuple coordinate) {
-            this.coordinate = coordinate;
-            this.theBoard = theBoard;
-            //create a copy of the box
-            for (int x = 0; x < 3; x++) {
-                System.arraycopy(theBoard.board[x + 3 * coordinate.x], 3 * coordinate.y, box[x], 0, 3);
-            }
+    //region Symbols
+    //the number of a character of the input, 0 for an empty case, letters are the numbers after 9, -1 for anything else
+    static int number (char symbol) {
+        if (symbol == '.' || symbol == '0') {
+            return 0;
+        }
+        if (symbol >= '1' && symbol <= '9') {
+            return symbol - '0';
+        }
+        if (symbol >= 'A' && symbol <= 'Z') {
+            return symbol - 'A' + 10;
         }
+        if (symbol >= 'a' && symbol <= 'z') {
+            return symbol - 'a' + 10;
+        }
+        return -1;
+    }
 
-        //get the number of appearances of each number
-        int[] getEntryCounter () {
-            //reset the array all back to zero
-            entryCounter = new int[9];
-            for (int n = 1; n <= 9; n++) {
-                for (int x = 0; x < 3; x++) {
-                    for (int y = 0; y < 3; y++) {
-                        if (containsInt(boardPoss[x + 3*coordinate.x][y + 3*coordinate.y], n)) {
-                            entryCounter[n - 1]++;
-                        }
-                    }
-                }
-            }
-            return entryCounter;
+    //the character of a number, . for an empty case
+    static char symbol (int number) {
+        if (number == 0) {
+            return '.';
         }
+        return number <= 9 ? (char) ('0' + number) : (char) ('A' + number - 10);
+    }
+    //endregion
 
-        //get and update a specific entry in the array
-        int getEntryCounter (int n) {
-            //set to zero
-            entryCounter[n - 1] = 0;
-            for (int x = 0; x < 3; x++) {
-                for (int y = 0; y < 3; y++) {
-                    if (containsInt(boardPoss[x + 3 * coordinate.x][y + 3 * coordinate.y], n)) {
-                        entryCounter[n - 1]++;
-                    }
-                }
-            }
-            return entryCounter[n - 1];
+    //region Helper Methods
+    //remove a mask of numbers in the case at index
+    private void purgeCase(int index, int removeNumbers) {
+        int removed = boardPoss[index] & removeNumbers;
+        if (removed != 0) {
+            boardPoss[index] &= ~removed;
+            removeEntries(index, removed);
         }
+    }
 
-        //region Purge Methods
-        //return true if the number is in the box
-        boolean isNumberBox(int number) {
-            //go through each array
-            for (int x = 0; x < 3; x++) {
-                if (containsInt(box[x], number)) {
-                    return true;
-                }
-            }
-            return false;
+    //we do the reverse of purge case we purge everything not in the mask
+    private void cleanCase (int index, int saveValues) {
+        int removed = boardPoss[index] & ~saveValues;
+        if (removed != 0) {
+            boardPoss[index] &= ~removed;
+            removeEntries(index, removed);
         }
+    }
 
-        //returns array of numbers present
-        Integer[] presentNumbers() {
-            List<Integer> numbersInside = new ArrayList<>();
-            //go through all numbers from 1 to 9
-            for (int n = 1; n <= 9; n++) {
-                if (isNumberBox(n)) {
-                    numbersInside.add(n);
-                }
+    //update the entry counters and the strong links of the row, column and box of a case after numbers got removed from it
+    private void removeEntries (int index, int removed) {
+        eliminations += countPoss(removed);
+        listener.eliminated(this, index, removed);
+        fishNumbers |= removed;
+        //the row, column and box of the case have to be looked at again
+        if (houseWords == 1) {
+            //they fit in a single long up to 16x16
+            long houses = geometry.cellHouseMask[index];
+            for (int queue = 0; queue < QUEUES; queue++) {
+                dirtyHouses[queue] |= houses;
             }
-            //convert to array
-            Integer[] arrNumbers = new Integer[numbersInside.size()];
-            arrNumbers = numbersInside.toArray(arrNumbers);
-            return arrNumbers;
-        }
-
-        //purging every number inside when taking no input
-        void purgeBox() {
-            Integer[] removeNumbers = presentNumbers();
-            //iterate through every coordinate
-            for (int x = 0; x < 3; x++) {
-                for (int y = 0; y < 3; y++) {
-                    //we need to scale it up using the coordinate of the box
-                    Tuple target = new Tuple(x + 3*coordinate.x, y + 3*coordinate.y);
-                    purgeCase(target, removeNumbers);
+        } else {
+            for (int house : geometry.cellHouses[index]) {
+                for (int queue = 0; queue < QUEUES; queue++) {
+                    dirtyHouses[queue * houseWords + (house >> 6)] |= 1L << house;
                 }
             }
         }
-
-        //precise purging of a specific number
-        void purgeBox(int removeNumber) {
-            Integer[] removeNumbers = new Integer[1];
-            removeNumbers[0] = removeNumber;
-            for (int x = 0; x < 3; x++) {
-                for (int y = 0; y < 3; y++) {
-                    Tuple target = new Tuple(x + 3*coordinate.x, y + 3*coordinate.y);
-                    purgeCase(target, removeNumbers);
+        for (int kind = 0; kind < 3; kind++) {
+            int house = geometry.cellHouses[index][kind];
+            int entries = size * house;
+            int position = ~(1 << geometry.cellPositions[index][kind]);
+            for (int mask = removed; mask != 0; mask &= mask - 1) {
+                int n = Integer.numberOfTrailingZeros(mask);
+                entryPositions[entries + n] &= position;
+                //counters only go down, so a house gains a strong link at 2 and loses it at 1
+                int count = --entryCounter[entries + n];
+                if (count == 2) {
+                    strongHouses[n * houseWords + (house >> 6)] |= 1L << house;
+                    colorNumbers |= 1 << n;
+                    newLinks |= CHAIN_LINKS;
+                } else if (count == 1) {
+                    strongHouses[n * houseWords + (house >> 6)] &= ~(1L << house);
                 }
             }
         }
-        //precise purging of a specific number
-        void purgeBox(int removeNumber, Tuple[] safe) {
-            Integer[] removeNumbers = new Integer[1];
-            removeNumbers[0] = removeNumber;
-            for (int x = 0; x < 3; x++) {
-                for (int y = 0; y < 3; y++) {
-                    Tuple target = new Tuple(x + 3*coordinate.x, y + 3*coordinate.y);
-                    //we need to make sure it is not in the safe zone
-                    if (!containsTuple(safe, target)) {
-                        purgeCase(target, removeNumbers);
-                    }
-                }
-            }
+        int left = countPoss(boardPoss[index]);
+        if (left == 2) {
+            bivalueCases[index >> 6] |= 1L << index;
+            newLinks |= XY_WING_LINKS | XYZ_WING_LINKS | CHAIN_LINKS;
+        } else if (left == 3) {
+            newLinks |= XYZ_WING_LINKS;
+        } else if (left < 2) {
+            bivalueCases[index >> 6] &= ~(1L << index);
         }
-        //endregion
-
-        //returns the tuples that contain the number in the box
-        Tuple[] numPoss (int num) {
-            //we first create of all tuples in our box
-            Tuple[] targets = new Tuple[9];
-            //create a counter so that we can easily populate the array
-            int counter = 0;
-            for (int y = 0; y < 3; y++) {
-                for (int x = 0; x < 3; x++) {
-                    Tuple point = new Tuple(x + 3*coordinate.x, y + 3*coordinate.y);
-                    targets[counter] = point;
-                    counter++;
-                }
+    }
+
+    //check if two different cases share a row, column or box
+    private boolean sees (int index, int other) {
+        if (index == other) {
+            return false;
+        }
+        int[] houses = geometry.cellHouses[index];
+        int[] otherHouses = geometry.cellHouses[other];
+        return houses[0] == otherHouses[0] || houses[1] == otherHouses[1] || houses[2] == otherHouses[2];
+    }
+
+    //purge the number from every case that sees both cases, the two cases themselves are left alone
+    private void purgeCommonPeers (int index, int other, int number) {
+        for (int peer : geometry.peers[index]) {
+            if (containsPoss(boardPoss[peer], number) && peer != other && sees(peer, other)) {
+                purgeCase(peer, bit(number));
             }
-            return numPossTargeted(num, targets);
         }
     }
+
     //endregion
 
-    //region Helper Methods
-    //methods that checks if an integer is inside in an integer array
-    private static boolean containsInt(Integer[] array, Integer test) {
-        for (int entry : array) {
-            if (entry == test) {
-                return true;
+    //region applying technique soleCandidate
+    //if there's only one possibility for a case it must be that one
+    public boolean soleCandidate() {
+        //go through every element on the board
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                int poss = boardPoss[possIndex(x, y)];
+                //if we have only one candidate, set the case to that candidate
+                if (countPoss(poss) == 1) {
+                    setNumber(possIndex(x, y), lowestPoss(poss));
+                    return true;
+                }
             }
         }
         return false;
     }
+    //endregion
 
-    private static boolean containsInt(int[] possibility, Integer test) {
-        for (Integer entry : possibility) {
-            if (entry.equals(test)) {
+    //region applying technique uniqueCandidate
+    public boolean uniqueCandidate() {
+        //only the houses that changed can have a new unique candidate, filling it in marks the house again
+        for (int house = nextDirty(UNIQUE_QUEUE); house != -1; house = nextDirty(UNIQUE_QUEUE)) {
+            if (uniqueCandidate(house)) {
                 return true;
             }
         }
         return false;
     }
 
-    //check if the tuple array contains the specific tuple
-    private static boolean containsTuple(Tuple[] array, Tuple test) {
-        //iterate through the array
-        for (Tuple point:array) {
-            //if it is equal
-            if (point.equivTo(test)) {
-                return true;
-            }
+    //fill in the first number that can only appear in one position in the house
+    private boolean uniqueCandidate (int house) {
+        int num = uniqueCandidateCounter(house);
+        //if we find one that is not zero
+        if (num != 0) {
+            //since we know that there is one position in the mask
+            setNumber(cell(house, Integer.numberOfTrailingZeros(getEntryPositions(house, num))), num);
+            return true;
         }
         return false;
     }
 
-    //return the intersection of possibilities along all the tuples
-    private Integer[] intersectionPoss (Tuple[] set) {
-        List<Integer> initial = new ArrayList<>();
-        for (Integer i: boardPoss[set[0].x][set[0].y]) {
-            for (int x = 0; x < set.length; x++) {
-                Tuple point = set[x];
-                if (!containsInt(boardPoss[point.x][point.y], i)) {
-                    break;
-                }
-                if (x == set.length - 1) {
-                    initial.add(i);
-                }
+    //this method gives us the number that can only appear in one position in a house
+    private int uniqueCandidateCounter (int house) {
+        //check if one appears exactly once
+        for (int n = 1; n <= size; n++) {
+            if (getEntryCounter(house, n) == 1) {
+                return n;
             }
         }
-        Integer[] arr = new Integer[initial.size()];
-        arr = initial.toArray(arr);
-        return arr;
+        //returns 0 otherwise
+        return 0;
     }
+    //endregion
+
 
-    //this method gets the intersection then sets all the tuples to the intersection
-    private void setIntersection (Tuple[] set) {
-        Integer[] arrIntersection = intersectionPoss(set);
-        for (Tuple point: set) {
-            cleanCase(point, arrIntersection);
+    //region Block interactions
+    //regroup all of the block interaction
+    public boolean blockInteractions() {
+        //we only did something if a possibility actually got removed
+        long before = eliminations;
+        //look at the houses that changed until none is left, purging a crossing house queues it too
+        for (int house = nextDirty(BLOCK_QUEUE); house != -1; house = nextDirty(BLOCK_QUEUE)) {
+            blockInteractionHouse(house);
         }
+        return eliminations != before;
     }
 
-    //using reference types to remove elements from an Integer array
-    private static Integer[] purgeArray(Integer[] target, Integer[] removeNumbers) {
-        List<Integer> updatedTarget = new ArrayList<>();
-        //we go through every possibility, and compare it with the numbers to be removed
-        for (Integer present : target) {
-            if (!containsInt(removeNumbers, present)) {
-                //we add the present number if it is not to be removed
-                updatedTarget.add(present);
+    //if every case a number can go to in a house is also in one crossing house, a box and a line through it,
+    //the number has to be in that intersection and we can purge it from the rest of the crossing house
+    private void blockInteractionHouse (int house) {
+        //check if it appears between boxSize and 1 times
+        for (int n = 1; n <= size; n++) {
+            //we cannot purge the same number in a house twice
+            if ((purgedNumbers[house] & bit(n)) != 0) {
+                continue;
+            }
+            //we get then entry of the specific number
+            int entry = getEntryCounter(house, n);
+            if (entry > 0 && entry <= geometry.boxSize) {
+                int positions = getEntryPositions(house, n);
+                //we need to check if they are all in the same crossing house
+                for (int other : geometry.crossing[house]) {
+                    if ((positions & ~geometry.shared[house][other]) == 0) {
+                        //remember the purged number
+                        purgedNumbers[house] |= bit(n);
+                        //we soft purge the crossing house, saving the intersection
+                        purgeHouse(other, bit(n), geometry.shared[other][house]);
+                    }
+                }
             }
         }
-        Integer[] newPoss = new Integer[updatedTarget.size()];
-        newPoss = updatedTarget.toArray(newPoss);
-        return newPoss;
     }
+    //endregion
 
-    //remove a set of numbers in a case at a coordinate
-    private void purgeCase(Tuple coordinate, Integer[] removeNumbers) {
-        boardPoss[coordinate.x][coordinate.y]
-                = purgeArray(boardPoss[coordinate.x][coordinate.y], removeNumbers);
+    //region subset, naked and hidden
+    //this is the 4th technique, if k cases of a house can only hold the same k numbers they form a naked subset
+    //and the numbers go nowhere else in the house, if k numbers can only go in the same k cases they form a hidden subset
+    //and the cases can hold nothing else, both are looked for from pairs up to quads
+    public boolean subset () {
+        //finding a subset that was already purged is not progress, only count removed possibilities
+        long before = eliminations;
+        //look at the houses that changed until none is left
+        for (int house = nextDirty(SUBSET_QUEUE); house != -1; house = nextDirty(SUBSET_QUEUE)) {
+            subsetHouse(house);
+        }
+        return eliminations != before;
     }
 
-    //we do the reverse of purge case we purge everything not in the array
-    private void cleanCase (Tuple coordinate, Integer[] saveValues) {
-        boardPoss[coordinate.x][coordinate.y] = saveValues;
-    }
+    //the biggest subsets we look for, a bigger naked subset always comes with a smaller hidden one and the other way around
+    static final int MAX_SUBSET = 4;
 
-    //method that checks if the valid does not contain a duplicate number
-    private boolean checkValidArray (int[] array) {
-        //try each number from 1 to 9
-        for (int n = 1; n <= 9; n++) {
-            //setup a counter to keep track how many times it appears
-            int counter = 0;
-            //iterate through the array
-            for (int entry : array) {
-                if (entry == n) {
-                    counter++;
-                }
-                if (counter > 1) {
-                    return false;
-                }
+    //finding subsets and purging, a subset is a combination mask of positions of the house with the mask of its numbers
+    private void subsetHouse (int house) {
+        int[] cells = geometry.houseCells[house];
+        //a subset of every empty case purges nothing
+        int maxSize = Math.min(MAX_SUBSET, countPoss(allPoss & ~present[house]) - 1);
+        if (maxSize < 2) {
+            return;
+        }
+        //only the empty cases with at most maxSize possibilities can be part of a naked subset
+        int positions = 0;
+        for (int position = 0; position < size; position++) {
+            int count = countPoss(boardPoss[cells[position]]);
+            if (count != 0 && count <= maxSize) {
+                positions |= 1 << position;
             }
         }
-        return true;
+        nakedSubsets(house, maxSize, positions, 0, 0);
+        //only the missing numbers that fit in at most maxSize cases can be part of a hidden subset
+        int numbers = 0;
+        for (int n = 1; n <= size; n++) {
+            if (!isNumberInside(house, n) && getEntryCounter(house, n) <= maxSize) {
+                numbers |= bit(n);
+            }
+        }
+        hiddenSubsets(house, maxSize, numbers, 0, 0);
     }
 
-    private boolean checkValidArray (int[][] array) {
-        //iterate through the array
-        for (int[] subArray : array) {
-            //use previous method to check if the subArray is valid
-            if (!checkValidArray(subArray)) {
-                return false;
+    //grow the combination of cases one position at a time while their possibilities fit in maxSize numbers
+    //when as many cases as numbers are chosen they are a naked subset
+    private void nakedSubsets (int house, int maxSize, int remaining, int chosen, int numbers) {
+        int size = countPoss(chosen);
+        if (size >= 2 && countPoss(numbers) == size) {
+            //we will purge all the cases not in the subset of the numbers of the naked subset
+            purgeHouse(house, numbers, chosen);
+            return;
+        }
+        if (size == maxSize) {
+            return;
+        }
+        int[] cells = geometry.houseCells[house];
+        for (; remaining != 0; remaining &= remaining - 1) {
+            int position = Integer.numberOfTrailingZeros(remaining);
+            int union = numbers | boardPoss[cells[position]];
+            if (countPoss(union) <= maxSize) {
+                nakedSubsets(house, maxSize, remaining & remaining - 1, chosen | 1 << position, union);
             }
         }
-        //returns true when all are valid.
-        return true;
     }
 
-    //takes input a number and a set of Tuples, return the subset of tuples that contain the number in the array
-    private Tuple[] numPossTargeted (int num, Tuple[] targets) {
-        List<Tuple> coordinates = new ArrayList<>();
-        for (Tuple target: targets) {
-            if (containsInt(boardPoss[target.x][target.y], num)) {
-                coordinates.add(target);
+    //grow the combination of numbers one number at a time while the cases they can go in fit in maxSize cases
+    //when as many numbers as cases are chosen they are a hidden subset
+    private void hiddenSubsets (int house, int maxSize, int remaining, int chosen, int positions) {
+        int count = countPoss(chosen);
+        if (count >= 2 && countPoss(positions) == count) {
+            //the cases of the hidden subset keep only its numbers
+            int[] cells = geometry.houseCells[house];
+            for (int mask = positions; mask != 0; mask &= mask - 1) {
+                cleanCase(cells[Integer.numberOfTrailingZeros(mask)], chosen);
+            }
+            return;
+        }
+        if (count == maxSize) {
+            return;
+        }
+        for (; remaining != 0; remaining &= remaining - 1) {
+            int n = Integer.numberOfTrailingZeros(remaining);
+            int union = positions | entryPositions[size * house + n];
+            if (countPoss(union) <= maxSize) {
+                hiddenSubsets(house, maxSize, remaining & remaining - 1, chosen | 1 << n, union);
             }
         }
-        Tuple[] possNum = new Tuple[coordinates.size()];
-        possNum = coordinates.toArray(possNum);
-        return possNum;
     }
+    //endregion
 
-    //check if the the tuples are in the same row
-    private boolean sameRowTuples (Tuple[] points) {
-        int sample = points[0].y;
-        for (Tuple point: points) {
-            //if any point is not in the same row
-            if (point.y != sample) {
-                return false;
+    //region fish, X-Wing, Swordfish and Jellyfish
+    //if a number can only go in the same k columns in k rows, each of those columns has it in one of the rows,
+    //so it cannot be anywhere else in the columns, the same goes with rows and columns swapped, k goes from 2 to 4
+    //a finned fish has a few more cases, the fins, all in one box, then only the cases of that box that the
+    //fish would purge are purged, since either a fin holds the number or the fish without fins is true
+    public boolean fish () {
+        long before = eliminations;
+        //a number that kept all its places since fish last looked at it has no new fish, purging marks it again
+        for (int numbers = fishNumbers; numbers != 0; numbers &= numbers - 1) {
+            int n = Integer.numberOfTrailingZeros(numbers) + 1;
+            fishNumbers &= ~bit(n);
+            //rows as base lines and columns as cover lines, then the other way around
+            fish(n, geometry.row(0), geometry.column(0));
+            fish(n, geometry.column(0), geometry.row(0));
+        }
+        return eliminations != before;
+    }
+
+    //the biggest fish we look for, a jellyfish
+    static final int MAX_FISH = 4;
+
+    //look for fish of the number whose base lines start at house firstBase, position i of a base line is in the i-th cover line
+    //and the i-th base line is at position i of every cover line
+    private void fish (int n, int firstBase, int firstCover) {
+        //the base lines the number is missing from and can go in at least twice, with room for a fish and its fins
+        int lines = 0;
+        for (int line = 0; line < size; line++) {
+            int count = getEntryCounter(firstBase + line, n);
+            if (!isNumberInside(firstBase + line, n) && count >= 2 && count <= MAX_FISH + geometry.boxSize) {
+                lines |= 1 << line;
             }
         }
-        return true;
+        fish(n, firstBase, firstCover, lines, 0, 0);
     }
 
-    //check if the the tuples are in the same column
-    private boolean sameColTuples (Tuple[] points) {
-        int sample = points[0].x;
-        for (Tuple point: points) {
-            //if any point is not in the same column
-            if (point.x != sample) {
-                return false;
+    //grow the combination of base lines one line at a time while the positions they cover can still make a fish
+    private void fish (int n, int firstBase, int firstCover, int remaining, int base, int cover) {
+        int size = countPoss(base);
+        if (size >= 2) {
+            if (countPoss(cover) == size) {
+                //purge the cover lines outside of the base lines, where the number still is
+                for (int mask = cover; mask != 0; mask &= mask - 1) {
+                    int coverLine = firstCover + Integer.numberOfTrailingZeros(mask);
+                    if ((getEntryPositions(coverLine, n) & ~base) != 0) {
+                        purgeHouse(coverLine, bit(n), base);
+                    }
+                }
+                return;
+            }
+            finnedFish(n, firstBase, firstCover, base, cover);
+        }
+        if (size == MAX_FISH) {
+            return;
+        }
+        for (; remaining != 0; remaining &= remaining - 1) {
+            int line = Integer.numberOfTrailingZeros(remaining);
+            int union = cover | getEntryPositions(firstBase + line, n);
+            if (countPoss(union) <= MAX_FISH + geometry.boxSize) {
+                fish(n, firstBase, firstCover, remaining & remaining - 1, base | 1 << line, union);
             }
         }
-        return true;
     }
 
-    //check if the tuples are in which interval, 0 or 1 or 2, else -1
-    private int intervalTuples (Tuple[] points) {
-        //check if it's in the same row or in the same column
-        if (sameColTuples(points)) {
-            //same column, we get a sample and then check if its all the same
-            int sample = points[0].y/3;
-            for (Tuple point: points) {
-                //if any point is not in the same box
-                if (point.y/3 != sample) {
-                    return -1;
-                }
+    //the fins of a fish all sit in one box, so the positions outside of a stack of boxes are all cover lines
+    //and only the positions inside the stack are split between cover lines and fins
+    private void finnedFish (int n, int firstBase, int firstCover, int base, int cover) {
+        int fishSize = countPoss(base);
+        int stackMask = (1 << geometry.boxSize) - 1;
+        for (int stack = 0; stack < size; stack += geometry.boxSize) {
+            int inside = cover & stackMask << stack;
+            int missing = fishSize - countPoss(cover & ~inside);
+            //we need cover lines for what is outside the stack and at least one fin inside of it
+            if (missing < 0 || countPoss(inside) <= missing) {
+                continue;
             }
-            //we return the sample if it satisfies every element in the loop
-            return sample;
-        } else {
-            //same row, we get a sample and then check if its all the same
-            int sample = points[0].x/3;
-            for (Tuple point: points) {
-                //if any point is not in the same box
-                if (point.x/3 != sample) {
-                    return -1;
+            //only the cover lines inside the stack can be purged, skip the stack if they have nothing to purge
+            int targets = 0;
+            for (int mask = inside; mask != 0; mask &= mask - 1) {
+                targets |= getEntryPositions(firstCover + Integer.numberOfTrailingZeros(mask), n) & ~base;
+            }
+            if (targets == 0) {
+                continue;
+            }
+            for (int lines = inside; ; lines = (lines - 1) & inside) {
+                if (countPoss(lines) == missing) {
+                    finnedFish(n, firstBase, firstCover, base, cover & ~inside | lines, inside & ~lines);
+                }
+                if (lines == 0) {
+                    break;
                 }
             }
-            //same as above
-            return sample;
         }
     }
 
-    //endregion
-
-    //region applying technique uniqueCandidate
-    public boolean uniqueCandidate() {
-        //begin by cycling through all the boxes
-        for (int x = 0; x < 3; x++) {
-            for (int y = 0; y < 3; y++) {
-                Box target = boxes[x][y];
-                int num = uniqueCandidateCounter(target);
-                //if we find one that is not zero
-                if (num != 0) {
-                    //since we know that there is one entry in the array
-                    Tuple coordinate = target.numPoss(num)[0];
-                    setNumber(coordinate,num);
-                    printBoard();
-                    return true;
+    //purge the cases of the cover lines that are in the box of the fins but not in a base line
+    //a base line meets a stack in a single box, so the fins are in one box when they are in base lines of one band
+    private void finnedFish (int n, int firstBase, int firstCover, int base, int lines, int fins) {
+        int finBox = -1;
+        for (int mask = base; mask != 0; mask &= mask - 1) {
+            int baseLine = firstBase + Integer.numberOfTrailingZeros(mask);
+            int finPositions = getEntryPositions(baseLine, n) & fins;
+            if (finPositions != 0) {
+                int box = geometry.cellHouses[cell(baseLine, Integer.numberOfTrailingZeros(finPositions))][2];
+                if (finBox != -1 && finBox != box) {
+                    return;
                 }
+                finBox = box;
             }
         }
-        //begin cycling through rows
-        for (int rowNum = 0; rowNum < 9; rowNum++) {
-            Row target = rows[rowNum];
-            int num = uniqueCandidateCounter(target);
-            //if we find one that is not zero
-            if (num != 0) {
-                //since we know that there is one entry in the array
-                Tuple coordinate = target.numPoss(num)[0];
-                setNumber(coordinate,num);
-                printBoard();
-                return true;
-            }
+        if (finBox == -1) {
+            return;
         }
-        //begin cycling through columns
-        for (int colNum = 0; colNum < 9; colNum++) {
-            Column target = cols[colNum];
-            int num = uniqueCandidateCounter(target);
-            //if we find one that is not zero
-            if (num != 0) {
-                //since we know that there is one entry in the array
-                Tuple coordinate = target.numPoss(num)[0];
-                setNumber(coordinate,num);
-                printBoard();
-                return true;
+        for (int mask = lines; mask != 0; mask &= mask - 1) {
+            int coverLine = firstCover + Integer.numberOfTrailingZeros(mask);
+            int targets = geometry.shared[coverLine][finBox] & ~base & getEntryPositions(coverLine, n);
+            if (targets != 0) {
+                purgeHouse(coverLine, bit(n), ~targets);
             }
         }
-
-        return false;
     }
+    //endregion
 
-    //this method gives us the number that can only appear in one position in a box
-    private int uniqueCandidateCounter(Box box) {
-        //get the entries in box
-        int[] entries = box.getEntryCounter();
-        //check if one appears exactly once
-        for (int n = 0; n < 9; n++) {
-            if (entries[n] == 1) {
-                return n + 1;
-            }
+    //region wings, XY-Wing and XYZ-Wing
+    //a case with possibilities xy sees a case xz and a case yz, whichever of x or y the first case holds,
+    //one of the other two cases is z, so z cannot be in a case that sees both of them
+    //a new wing needs a new case with 2 possibilities, the pivot and the pincers keep theirs until they are filled in
+    public boolean xyWing () {
+        if ((newLinks & XY_WING_LINKS) == 0) {
+            return false;
         }
-        //returns 0 otherwise
-        return 0;
-    }
-
-    private int uniqueCandidateCounter (Row row) {
-        //get the entries in box
-        int[] entries = row.getEntryCounter();
-        //check if one appears exactly once
-        for (int n = 0; n < 9; n++) {
-            if (entries[n] == 1) {
-                return n + 1;
+        newLinks &= ~XY_WING_LINKS;
+        long before = eliminations;
+        for (int word = 0; word < bivalueCases.length; word++) {
+            for (long cases = bivalueCases[word]; cases != 0; cases &= cases - 1) {
+                int pivot = 64 * word + Long.numberOfTrailingZeros(cases);
+                int pivotMask = boardPoss[pivot];
+                if (countPoss(pivotMask) != 2) {
+                    continue;
+                }
+                for (int first : geometry.peers[pivot]) {
+                    int firstMask = boardPoss[first];
+                    //the first pincer shares one number with the pivot and brings the number z
+                    if (countPoss(firstMask) != 2 || countPoss(firstMask & pivotMask) != 1) {
+                        continue;
+                    }
+                    int secondMask = pivotMask & ~firstMask | firstMask & ~pivotMask;
+                    for (int second : geometry.peers[pivot]) {
+                        if (boardPoss[second] == secondMask) {
+                            purgeCommonPeers(first, second, lowestPoss(firstMask & ~pivotMask));
+                        }
+                    }
+                }
             }
         }
-        //returns 0 otherwise
-        return 0;
+        return eliminations != before;
     }
 
-    private int uniqueCandidateCounter (Column col) {
-        //get the entries in box
-        int[] entries = col.getEntryCounter();
-        //check if one appears exactly once
-        for (int n = 0; n < 9; n++) {
-            if (entries[n] == 1) {
-                //n + 1 since n is the index
-                return n + 1;
+    //same as the XY-Wing but the first case also holds z, so z cannot be in a case that sees all three of them
+    //a new wing needs a new pincer, or a new pivot with 3 possibilities
+    public boolean xyzWing () {
+        if ((newLinks & XYZ_WING_LINKS) == 0) {
+            return false;
+        }
+        newLinks &= ~XYZ_WING_LINKS;
+        long before = eliminations;
+        for (int pivot = 0; pivot < cells; pivot++) {
+            int pivotMask = boardPoss[pivot];
+            if (countPoss(pivotMask) != 3) {
+                continue;
+            }
+            for (int first : geometry.peers[pivot]) {
+                int firstMask = boardPoss[first];
+                if (countPoss(firstMask) != 2 || (firstMask & ~pivotMask) != 0) {
+                    continue;
+                }
+                for (int second : geometry.peers[pivot]) {
+                    int secondMask = boardPoss[second];
+                    //the two pincers are different pairs of the pivot numbers, z is the one they share
+                    if (second <= first || countPoss(secondMask) != 2 || (secondMask & ~pivotMask) != 0
+                            || secondMask == firstMask) {
+                        continue;
+                    }
+                    int z = lowestPoss(firstMask & secondMask);
+                    for (int peer : geometry.peers[pivot]) {
+                        if (peer != first && peer != second && sees(peer, first) && sees(peer, second)) {
+                            purgeCase(peer, bit(z));
+                        }
+                    }
+                }
             }
         }
-        //returns 0 otherwise
-        return 0;
+        return eliminations != before;
     }
     //endregion
 
-
-    //region Block interactions
-    //regroup all of the block interaction
-    public boolean blockInteractions() {
-        //create a boolean that returns false if nothing ever gets updated
-        boolean didSomething = false;
-        //begin by cycling through all the boxes
-        for (int x = 0; x < 3; x++) {
-            for (int y = 0; y < 3; y++) {
-                Box target = boxes[x][y];
-                if (blockInteractionBox(target)) {
-                    didSomething = true;
+    //region simple coloring
+    //the strong links of one number split its cases into chains where the number is in every other case,
+    //colouring them with two colours, one of the colours holds the number and the other does not
+    //if two cases of the same colour see each other that colour is wrong, and a case that sees both colours cannot hold it
+    public boolean coloring () {
+        long before = eliminations;
+        allocateChains();
+        for (int n = 1; n <= size && eliminations == before; n++) {
+            //the chains of a number without new strong links have nothing new to purge
+            if (!containsPoss(colorNumbers, n)) {
+                continue;
+            }
+            colorNumbers &= ~bit(n);
+            //every chain gets a new stamp, so the cases of the number already coloured have a stamp newer than first
+            int first = chainStamp;
+            //the places of the number row by row, the same order as the indexes
+            for (int y = 0; y < size && eliminations == before; y++) {
+                int row = geometry.row(y);
+                for (int positions = getEntryPositions(row, n); positions != 0 && eliminations == before;
+                        positions &= positions - 1) {
+                    int start = cell(row, Integer.numberOfTrailingZeros(positions));
+                    if (colorOf(start, first) == -1 && hasStrongLink(start, n)) {
+                        chainStamp++;
+                        colorTrap(n, colorChain(start, n));
+                    }
                 }
             }
-        }
-        //begin cycling through rows
-        for (int rowNum = 0; rowNum < 9; rowNum++) {
-            Row target = rows[rowNum];
-            if (blockInteractionRow(target)) {
-                didSomething = true;
+            //we stopped at the first chain that purged, the others have to be looked at next time
+            if (eliminations != before) {
+                colorNumbers |= bit(n);
             }
         }
-        //begin cycling through columns
-        for (int colNum = 0; colNum < 9; colNum++) {
-            Column target = cols[colNum];
-            blockInteractionCol(target);
-            if (blockInteractionCol(target)) {
-                didSomething = true;
-            }
+        return eliminations != before;
+    }
+
+    //the colour of the case in the chains stamped after first, -1 if it is in none of them
+    //chainMarks holds the stamp of the chain at the case for the first colour and a board further for the second
+    private int colorOf (int index, int first) {
+        if (chainMarks[index] > first) {
+            return 0;
         }
-        return didSomething;
+        return chainMarks[index + cells] > first ? 1 : -1;
     }
 
-    private boolean blockInteractionBox (Box box) {
-        //boolean that returns true if it did something
-        boolean didSomething = false;
-        //check if it appears between 3 and 2 times
-        for (int n = 1; n <= 9; n++) {
-            //we cannot purge the same number in a box twice
-            if (box.purgedNumbers.contains(n)) {
-                continue;
-            }
-            //we get then entry of the specific number
-            int entry = box.getEntryCounter(n);
-            if (entry > 0 && entry <= 3) {
-                Tuple[] locations = box.numPoss(n);
-                //we need to check if they are all in the same row or column
-                if (sameRowTuples(locations)) {
-                    //remember the purged number
-                    box.purgedNumbers.add(n);
-                    //we soft purge the row, saving our own array of tuples
-                    rows[locations[0].y].purgeRow(n, locations);
-                    didSomething = true;
-                }
-                if (sameColTuples(locations)) {
-                    //remember the purged number
-                    box.purgedNumbers.add(n);
-                    //we soft purge the row, saving our own array of tuples
-                    cols[locations[0].x].purgeCol(n, locations);
-                    didSomething = true;
+    //colour every case joined to start by strong links of the number, returns how many cases are in chainQueue
+    private int colorChain (int start, int n) {
+        chainMarks[start] = chainStamp;
+        chainQueue[0] = start;
+        int size = 1;
+        for (int i = 0; i < size; i++) {
+            int index = chainQueue[i];
+            int color = colorOf(index, chainStamp - 1);
+            for (int kind = 0; kind < 3; kind++) {
+                int other = strongPartner(index, n, kind);
+                if (other != -1 && colorOf(other, chainStamp - 1) == -1) {
+                    chainMarks[other + cells * (color ^ 1)] = chainStamp;
+                    chainQueue[size++] = other;
                 }
             }
         }
-        return didSomething;
-    }
-
-    //method that describes block interactions with row or columns
-    private boolean blockInteractionRow (Row row) {
-        //returns true if it ever updates something
-        boolean didSomething = false;
-        //check if it appears between 3 and 2 times
-        for (int n = 1; n <= 9; n++) {
-            //if it has not already been purged
-            if (!row.purgedNumbers.contains(n)) {
-                //we check it can appear in how many cases
-                int entry = row.getEntryCounter(n);
-                if (entry > 0 && entry <= 3) {
-                    Tuple[] positions = row.numPoss(n);
-                    //we need to check if they are all in the same box
-                    int boxX = intervalTuples(positions);
-                    //if it's valid
-                    if (boxX != -1) {
-                        //remember the purged number
-                        row.purgedNumbers.add(n);
-                        //soft purge the box
-                        boxes[boxX][row.rowNumber / 3].purgeBox(n, positions);
-                        didSomething = true;
+        return size;
+    }
+
+    //apply both colouring rules to the chain in chainQueue
+    private void colorTrap (int n, int size) {
+        int first = chainStamp - 1;
+        //two cases of the same colour see each other, so the number is in none of that colour
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                int wrong = colorOf(chainQueue[i], first);
+                if (wrong == colorOf(chainQueue[j], first) && sees(chainQueue[i], chainQueue[j])) {
+                    for (int k = 0; k < size; k++) {
+                        if (colorOf(chainQueue[k], first) == wrong) {
+                            purgeCase(chainQueue[k], bit(n));
+                        }
                     }
+                    return;
                 }
             }
         }
-        return didSomething;
-    }
-
-    //method that describes block interactions with row or columns
-    private boolean blockInteractionCol (Column col) {
-        //boolean that returns true if it does something
-        boolean didSomething = false;
-        //check if it appears between 3 and 2 times
-        for (int n = 1; n <= 9; n++) {
-            //we need to make sure it didn't already get purged
-            if (!col.purgedNumbers.contains(n)) {
-                int entry = col.getEntryCounter(n);
-                if (entry > 1 && entry <= 3) {
-                    Tuple[] positions = col.numPoss(n);
-                    //we need to check if they are all in the same box
-                    int boxY = intervalTuples(positions);
-                    //if it's a valid interval
-                    if (boxY != -1) {
-                        //remember the purged number
-                        col.purgedNumbers.add(n);
-                        //soft purge the box
-                        boxes[col.colNumber / 3][boxY].purgeBox(n, positions);
-                        didSomething = true;
+        //a case outside the chain that sees both colours, the peers of the first colour are stamped two boards
+        //further so the peers of the second colour that have the stamp see both
+        for (int colour = 0; colour < 2; colour++) {
+            for (int i = 0; i < size; i++) {
+                if (colorOf(chainQueue[i], first) != colour) {
+                    continue;
+                }
+                for (int peer : geometry.peers[chainQueue[i]]) {
+                    if (!containsPoss(boardPoss[peer], n) || colorOf(peer, first) != -1) {
+                        continue;
+                    }
+                    if (colour == 0) {
+                        chainMarks[peer + 2 * cells] = chainStamp;
+                    } else if (chainMarks[peer + 2 * cells] == chainStamp) {
+                        purgeCase(peer, bit(n));
                     }
                 }
             }
         }
-        return didSomething;
     }
     //endregion
 
-    //region subset, naked and hidden
-    //this is the 4th technique, if we have a clean subset we can purge
-    public boolean subset () {
-        //create a boolean that returns false if nothing ever gets updated
-        boolean didSomething = false;
-        //begin by cycling through all the boxes
-        for (int x = 0; x < 3; x++) {
-            for (int y = 0; y < 3; y++) {
-                Box target = boxes[x][y];
-                if (subsetBox(target)) {
-                    didSomething = true;
-                }
-            }
-        }
-        //begin cycling through rows
-        for (int rowNum = 0; rowNum < 9; rowNum++) {
-            Row target = rows[rowNum];
-            if (subsetRow(target)) {
-                didSomething = true;
-            }
+    //region alternating inference chains
+    //a possibility is a node size*index + n - 1, if a node is false the nodes strongly linked to it are true,
+    //and if a node is true the nodes weakly linked to it are false, going back and forth between the two
+    //from a start assumed false, every node found true means the start or that node is true,
+    //so whatever is weakly linked to both of them is false, and the start is true if it is found true itself
+    //a node is only found true through a strong link, so without new strong links nothing new is found
+    public boolean chains () {
+        if ((newLinks & CHAIN_LINKS) == 0) {
+            return false;
         }
-        //begin cycling through columns
-        for (int colNum = 0; colNum < 9; colNum++) {
-            Column target = cols[colNum];
-            blockInteractionCol(target);
-            if (subsetCol(target)) {
-                didSomething = true;
+        newLinks &= ~CHAIN_LINKS;
+        long before = eliminations;
+        allocateChains();
+        int nodes = cells * size;
+        for (int i = 0; i < nodes && eliminations == before; i++) {
+            int start = chainsFrom + i < nodes ? chainsFrom + i : chainsFrom + i - nodes;
+            int index = start / size;
+            int n = start % size + 1;
+            if (containsPoss(boardPoss[index], n) && (hasStrongLink(index, n) || countPoss(boardPoss[index]) == 2)) {
+                chain(start);
+                if (eliminations != before) {
+                    chainsFrom = start;
+                }
             }
         }
-        return didSomething;
-    }
-
-    //finding subsets and purging
-    //we need to find the hidden subset or the naked subset,
-    private boolean subsetBox (Box box) {
-        //keep track if we ever did anything
-        boolean didSomething = false;
-        //we create the set of coordinates
-        Tuple[] set = new Tuple[9];
-        //we also create a counter to help us throughout the loop
-        int counter = 0;
-        //populate the array
-        for (int x = 0; x < 3; x++) {
-            for (int y = 0; y < 3; y++) {
-                set[counter] = new Tuple(x + 3*box.coordinate.x,y + 3*box.coordinate.y);
-                counter++;
-            }
+        //we stopped at the first start that purged, the ones after it have to be looked at next time
+        if (eliminations != before) {
+            newLinks |= CHAIN_LINKS;
         }
-        //we then check if there is any of them that is a naked subset
-        for (Tuple target : set) {
-            Tuple[] arrTuples = getNakedSubset(target, set, box);
-            Tuple[] hiddenTuples = getHiddenSubset(target,set, box);
-            if (arrTuples != null) {
-                //we found a naked subset
-                didSomething = true;
-                // we will purge all the cases not in the subset of the numbers of the naked subset
-                for (Integer poss : boardPoss[target.x][target.y]) {
-                    box.purgeBox(poss, arrTuples);
-                }
-            }
-            if (hiddenTuples != null) {
-                //we found a hidden subset
-                didSomething = true;
-                //we must first set it to all the numbers that appear exactly n times
-                for (Integer i: boardPoss[hiddenTuples[0].x][hiddenTuples[0].y]) {
-                    if (box.entryCounter[i - 1] != hiddenTuples.length) {
-                        Integer[] removed = new Integer[1];
-                        removed[0] = i;
-                        purgeCase(hiddenTuples[0],removed);
+        return eliminations != before;
+    }
+
+    //follow the links from the start assumed false until we find something to purge or every reachable node is visited
+    //chainMarks holds the stamp of the search at the node once found false, and cells*size nodes further once found true
+    private void chain (int start) {
+        chainStamp++;
+        long before = eliminations;
+        int queued = 0;
+        chainQueue[queued++] = 2 * start;
+        mark(start, false);
+        for (int i = 0; i < queued && eliminations == before; i++) {
+            int node = chainQueue[i] >> 1;
+            int index = node / size;
+            int n = node % size + 1;
+            if ((chainQueue[i] & 1) == 0) {
+                //the node is false, so its strong links are true
+                for (int kind = 0; kind < 3; kind++) {
+                    int other = strongPartner(index, n, kind);
+                    if (other != -1 && mark(size * other + n - 1, true)) {
+                        chainQueue[queued++] = 2 * (size * other + n - 1) + 1;
+                        conclude(start, size * other + n - 1);
                     }
                 }
-                //we set the tuples to their intersection
-                setIntersection(hiddenTuples);
-            }
-        }
-        return didSomething;
-    }
-
-    private boolean subsetCol (Column col) {
-        //keep track if we ever did anything
-        boolean didSomething = false;
-        //we create the set of coordinates
-        Tuple[] set = new Tuple[9];
-        //populate the array
-        for (int y = 0; y < 9; y++) {
-            Tuple point = new Tuple(col.colNumber, y);
-            set[y] = point;
-        }
-        //we then check if there is any of them that is a naked subset
-        for (Tuple target : set) {
-            Tuple[] arrTuples = getNakedSubset(target, set, col);
-            Tuple[] hiddenTuples = getHiddenSubset(target,set, col);
-            if (arrTuples != null) {
-                //we found a naked subset
-                didSomething = true;
-                // we will purge all the cases not in the subset of the numbers of the naked subset
-                for (Integer poss : boardPoss[target.x][target.y]) {
-                    col.purgeCol(poss, arrTuples);
-                }
-            }
-            if (hiddenTuples != null) {
-                //we found a hidden subset
-                didSomething = true;
-                //we must first set it to all the numbers that appear exactly n times
-                for (Integer i: boardPoss[hiddenTuples[0].x][hiddenTuples[0].y]) {
-                    if (col.entryCounter[i - 1] != hiddenTuples.length) {
-                        Integer[] removed = new Integer[1];
-                        removed[0] = i;
-                        purgeCase(hiddenTuples[0],removed);
+                int mask = boardPoss[index];
+                if (countPoss(mask) == 2) {
+                    int other = size * index + lowestPoss(mask & ~bit(n)) - 1;
+                    if (mark(other, true)) {
+                        chainQueue[queued++] = 2 * other + 1;
+                        conclude(start, other);
                     }
                 }
-                //set the hidden subset to the intersection
-                setIntersection(hiddenTuples);
-            }
-        }
-        return didSomething;
-    }
-
-    private boolean subsetRow (Row row) {
-        //keep track if we ever did anything
-        boolean didSomething = false;
-        //we create the set of coordinates
-        Tuple[] set = new Tuple[9];
-        //populate the array
-        for (int x = 0; x < 9; x++) {
-            Tuple point = new Tuple(x, row.rowNumber );
-            set[x] = point;
-        }
-        //we then check if there is any of them that is a naked subset
-        for (Tuple target : set) {
-            Tuple[] arrTuples = getNakedSubset(target, set, row);
-            Tuple[] hiddenTuples = getHiddenSubset(target,set, row);
-            if (arrTuples != null) {
-                //we found a naked subset
-                didSomething = true;
-                // we will purge all the cases not in the subset of the numbers of the naked subset
-                for (Integer poss : boardPoss[target.x][target.y]) {
-                    row.purgeRow(poss, arrTuples);
+            } else {
+                //the node is true, so its weak links are false
+                for (int mask = boardPoss[index] & ~bit(n); mask != 0; mask &= mask - 1) {
+                    int other = size * index + Integer.numberOfTrailingZeros(mask);
+                    if (hasStrongLink(index, Integer.numberOfTrailingZeros(mask) + 1) && mark(other, false)) {
+                        chainQueue[queued++] = 2 * other;
+                    }
                 }
-            }
-            if (hiddenTuples != null) {
-                //we found a hidden subset
-                didSomething = true;
-                //we must first set it to all the numbers that appear exactly n times
-                for (Integer i: boardPoss[hiddenTuples[0].x][hiddenTuples[0].y]) {
-                    if (row.entryCounter[i - 1] != hiddenTuples.length) {
-                        Integer[] removed = new Integer[1];
-                        removed[0] = i;
-                        purgeCase(hiddenTuples[0],removed);
+                //the places left for the number in the row, column and box of the case,
+                //a false node only leads somewhere through a strong link, the others are not worth queueing
+                for (int kind = 0; kind < 3; kind++) {
+                    int house = geometry.cellHouses[index][kind];
+                    int positions = getEntryPositions(house, n) & ~(1 << geometry.cellPositions[index][kind]);
+                    for (; positions != 0; positions &= positions - 1) {
+                        int peer = cell(house, Integer.numberOfTrailingZeros(positions));
+                        if ((hasStrongLink(peer, n) || countPoss(boardPoss[peer]) == 2)
+                                && mark(size * peer + n - 1, false)) {
+                            chainQueue[queued++] = 2 * (size * peer + n - 1);
+                        }
                     }
                 }
-                //we set it to the intersection
-                setIntersection(hiddenTuples);
             }
         }
-        return didSomething;
-    }
-
-    //method will check if the particular tuple is a naked subset in the whole set/box
-    private Tuple[] getNakedSubset(Tuple target, Tuple[] set, Object object) {
-        //we first get the number of possibilities of the tuple
-        int numbPoss = boardPoss[target.x][target.y].length;
-        //we then check if it is even worth purging
-        if (numbPoss == 0) {
-            return null;
-        }
-        //we iterate through every possibility in the tuple
-        for (int entry = 0; entry < numbPoss; entry++) {
-            //n is the entry
-            int n = boardPoss[target.x][target.y][entry];
-            int entryCounter;
-            //we get the number of times that the entry appears in the set
-            if (object instanceof Row) {
-                entryCounter = ((Row) object).getEntryCounter(n);
-            } else if (object instanceof Column) {
-                entryCounter = ((Column) object).getEntryCounter(n);
-            } else {
-                entryCounter = ((Box) object).getEntryCounter(n);
-            }
-            //there is a chance that the naked subset is useful
-            if (entryCounter > numbPoss) {
-                break;
+    }
+
+    //remember that the node was reached with the truth value, returns false if it already was
+    private boolean mark (int node, boolean truth) {
+        int slot = truth ? node + cells * size : node;
+        if (chainMarks[slot] == chainStamp) {
+            return false;
+        }
+        chainMarks[slot] = chainStamp;
+        return true;
+    }
+
+    //the start or the node is true, purge what is weakly linked to both of them
+    private void conclude (int start, int node) {
+        int index = start / size;
+        int n = start % size + 1;
+        int other = node / size;
+        int otherN = node % size + 1;
+        if (node == start) {
+            cleanCase(index, bit(n));
+        } else if (n == otherN) {
+            purgeCommonPeers(index, other, n);
+        } else if (index == other) {
+            cleanCase(index, bit(n) | bit(otherN));
+        } else if (sees(index, other)) {
+            purgeCase(index, bit(otherN));
+            purgeCase(other, bit(n));
+        }
+    }
+    //endregion
+
+    //region strong links
+    //the case strongly linked to the case for the number through its kind-th house (0 row, 1 column, 2 box), -1 if none
+    private int strongPartner (int index, int number, int kind) {
+        int house = geometry.cellHouses[index][kind];
+        if (!isStrongHouse(number, house)) {
+            return -1;
+        }
+        int positions = getEntryPositions(house, number) & ~(1 << geometry.cellPositions[index][kind]);
+        return positions == 0 ? -1 : cell(house, Integer.numberOfTrailingZeros(positions));
+    }
+
+    //check if the number of the case is strongly linked to the same number in another case
+    private boolean hasStrongLink (int index, int number) {
+        int[] houses = geometry.cellHouses[index];
+        return isStrongHouse(number, houses[0]) || isStrongHouse(number, houses[1]) || isStrongHouse(number, houses[2]);
+    }
+
+    //check if the number can only go in 2 places of the house
+    private boolean isStrongHouse (int number, int house) {
+        return (strongHouses[(number - 1) * houseWords + (house >> 6)] & 1L << house) != 0;
+    }
+
+    private void allocateChains () {
+        if (chainMarks == null) {
+            //a stamp per node and truth value, the first 3*cells are also a stamp per case and colour and per case
+            //seen by the first colour
+            chainMarks = new int[2 * cells * size];
+            chainQueue = new int[2 * cells * size];
+        }
+    }
+    //endregion
+
+    //check if every case of the board is filled in without breaking any rule
+    public boolean isSolved () {
+        for (int index = 0; index < cells; index++) {
+            if (board[index] == 0) {
+                return false;
             }
-            //naked subset not useful
-            if (entry == numbPoss - 1) {
-                return null;
+        }
+        //with every case filled, a house has every number only if none of them is there twice
+        for (int house = 0; house < geometry.houses; house++) {
+            if (present[house] != allPoss) {
+                return false;
             }
         }
-        //we create a Tuple list that takes in all the similar sets
-        List<Tuple> similarTuples = new ArrayList<>();
-        //we create a counter to check if there is the same number of subset
-        int counter = 0;
-        //we go through every tuple of the set
-        for (Tuple test : set) {
-            //searching for another box with the same quantity of numbers
-            if (boardPoss[test.x][test.y].length == numbPoss) {
-                //and we check if they contain the same numbers
-                for (int i = 0; i < numbPoss; i++) {
-                    //if they have one number that is different we break through the loop
-                    //this if statement works since we know we always put them in increasing order
-                    if (!boardPoss[target.x][target.y][i].equals(boardPoss[test.x][test.y][i])) {
-                        break;
-                    }
-                    //on the last iteration we say it is the same thing
-                    if (i == numbPoss - 1) {
-                        //so we add it to the list
-                        similarTuples.add(test);
-                        counter++;
+        return true;
+    }
+
+    //check that no row, column or box has a number twice, the constructors accept such givens but they have no solution
+    public boolean isValid () {
+        for (int house = 0; house < geometry.houses; house++) {
+            int seen = 0;
+            for (int index : geometry.houseCells[house]) {
+                int number = board[index];
+                if (number != 0) {
+                    if (containsPoss(seen, number)) {
+                        return false;
                     }
+                    seen |= bit(number);
                 }
             }
         }
-        //if it is a naked subset we also want to make sure that it has not already been purged
-        if (counter == numbPoss) {
-            //we create the Tuple array that will be returned
-            Tuple[] arrTuples = new Tuple[similarTuples.size()];
-            arrTuples = similarTuples.toArray(arrTuples);
-            return arrTuples;
-        }
-        //since the counter does not match
-        return null;
-    }
-
-    //check if the particular tuple contains a hidden subset
-    //we will have to check every number in the case and see if they always reappear together
-    private Tuple[] getHiddenSubset(Tuple target, Tuple[] set, Object object) {
-        //we begin by doing the fastest check
-        Integer[] targetPoss = boardPoss[target.x][target.y];
-        //if it has nothing in it we just return null
-        if (targetPoss.length == 0) {
-            return null;
-        }
-        //we get the array that tells us how many times each element appear
-        int[] entriesMinus1;
-        //if it's a row, column or box
-        if (object instanceof Row) {
-            entriesMinus1 = ((Row) object).getEntryCounter();
-        } else if (object instanceof Column) {
-            entriesMinus1 = ((Column) object).getEntryCounter();
-        } else {
-            entriesMinus1 = ((Box) object).getEntryCounter();
-        }
-        //we begin by doing a quick check if there are any number that appear the same number of times
-        for (Integer firstPoss : targetPoss) {
-            //we get the number of times it appears in the set
-            int appearances = entriesMinus1[firstPoss - 1];
-            if (appearances >= targetPoss.length) {
-                //we have a naked subset or something worse
-                //because if it is a subset it has to be lower if its equal it's a naked subset
-                continue;
+        return true;
+    }
+
+    //check if the board can no longer be solved, an empty case has no possibility left
+    //or a row, column or box is missing a number that cannot go anywhere in it
+    public boolean hasContradiction () {
+        for (int index = 0; index < cells; index++) {
+            if (board[index] == 0 && boardPoss[index] == 0) {
+                return true;
             }
-            //this counter keeps track the number of numbers that have the same appearances as the target
-            int counter = 0;
-            for (Integer test : targetPoss) {
-                //if they appear the same number of times
-                if (appearances == entriesMinus1[test - 1]) {
-                    //we check if they always appear together
-                    //we count the number of times one appears with the other one
-                    int subCounter = 0;
-                    //we also create an Tuple array to collect the tuples that the target appears
-                    List<Tuple> subset = new ArrayList<>();
-                    //iterate through the set and check if they appear together in the same places
-                    for (Tuple coordinate : set) {
-                        Integer[] possibilities = boardPoss[coordinate.x][coordinate.y];
-                        //if one appears but the other one appears
-                        if (containsInt(possibilities, firstPoss) && containsInt(possibilities,test)) {
-                            //we add it to the subset
-                            subset.add(coordinate);
-                            subCounter++;
-                        }
-                        //we found everything for those two numbers
-                        if (subCounter == appearances) {
-                            //we increment the macro counter
-                            counter++;
-                            break;
-                        }
-                    }
-                    //now everything lines up we have x numbers that appear in the same x slots
-                    if (counter == appearances) {
-                        Tuple[] arrSubset = new Tuple[subset.size()];
-                        return subset.toArray(arrSubset);
-                    }
+        }
+        for (int house = 0; house < geometry.houses; house++) {
+            for (int n = 1; n <= size; n++) {
+                if (!isNumberInside(house, n) && getEntryCounter(house, n) == 0) {
+                    return true;
                 }
             }
         }
-        //if we get ABSOLUTELY NOTHING
-        return null;
+        return false;
+    }
+
+    //returns the empty case with the fewest possibilities, null if the board has no empty case
+    public Tuple fewestPossCase () {
+        int index = fewestPossIndex();
+        return index == -1 ? null : new Tuple(index % size, index / size);
+    }
+
+    //same as fewestPossCase but returns the index x + size*y of the case, -1 if the board has no empty case
+    public int fewestPossIndex () {
+        int best = -1;
+        int bestCount = size + 1;
+        for (int index = 0; index < cells; index++) {
+            int count = countPoss(boardPoss[index]);
+            if (board[index] == 0 && count < bestCount) {
+                best = index;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    //returns the board as a line in the same format as the string constructor, . for empty cases
+    public String toLine () {
+        char[] line = new char[cells];
+        for (int i = 0; i < cells; i++) {
+            line[i] = symbol(board[i]);
+        }
+        return new String(line);
     }
-    //endregion
 
     //method will visually print a board
     public void printBoard() {
+        int boxSize = geometry.boxSize;
         //iterate the columns
-        for (int y = 0; y < 9; y++) {
+        for (int y = 0; y < size; y++) {
             //iterate the rows
             //create a string for the row using string builder
             StringBuilder row = new StringBuilder();
-            for (int x = 0; x < 9; x++) {
+            for (int x = 0; x < size; x++) {
                 //append the number
-                row.append(board[x][y]);
-                //then at each 3 elements draw a line
-                if (x == 2 || x == 5) {
+                row.append(symbol(board[possIndex(x, y)]));
+                //then at the end of each box draw a line
+                if (x % boxSize == boxSize - 1 && x != size - 1) {
                     row.append("|");
                 } else {
                     row.append(" ");
@@ -1208,9 +1282,9 @@ public class SudokuBoard {
             //print it out
             System.out.println(row);
             //print the horizontal bars
-            if (y == 2 || y == 5) {
-                //print 18 of them
-                for (int i = 0; i < 18; i++) {
+            if (y % boxSize == boxSize - 1 && y != size - 1) {
+                //print 2 per case
+                for (int i = 0; i < 2 * size; i++) {
                     System.out.print("-");
                 }
                 //then end the line
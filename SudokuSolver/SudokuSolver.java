@@ -1,72 +1,138 @@
+import java.io.IOException;
 import java.util.Scanner;
 
 //method will input deductive/logic techniques but also brute force if necessary.
 public class SudokuSolver {
     private SudokuBoard board;
+    //decides which technique to apply next
+    private TechniqueScheduler scheduler;
+    //what the techniques did during the last solve, null unless the scheduler has metrics attached
+    private SolveMetrics metrics;
+    //how many numbers the search guessed during the last solve
+    private long guesses = 0;
 
     public SudokuSolver (SudokuBoard board) {
-        this.board = board;
+        this(board, true);
     }
 
-    //this method is the cycle from least complex technique to most complex
-    public void solveCycle () {
-        if (soleCandidate()) {
-            solveCycle();
-            return;
-        }
-        if (uniqueCandidate()) {
-            solveCycle();
-            return;
-        }
-        if (blockInteraction()) {
-            solveCycle();
-			return;
-        }
-        if (subset()) {
-            solveCycle();
+    //printSteps prints the board after every number filled in, through a PrintingListener
+    public SudokuSolver (SudokuBoard board, boolean printSteps) {
+        this(board, printSteps, TechniqueScheduler.standard());
+    }
+
+    //the scheduler can be shared by solvers of the same thread, so adaptive ordering learns across puzzles
+    public SudokuSolver (SudokuBoard board, boolean printSteps, TechniqueScheduler scheduler) {
+        this.board = board;
+        this.scheduler = scheduler;
+        if (printSteps) {
+            board.setListener(new PrintingListener());
         }
     }
 
-    //the first technique SoleCandidate if there's only one possibility for
-    //a case it must be that one
-    private boolean soleCandidate () {
-        //go through every element on the board
-        for (int x = 0; x < 9; x++) {
-            for (int y = 0; y < 9; y++) {
-                Tuple coordinate = new Tuple(x,y);
-                Integer[] poss = board.getPoss(coordinate);
-                //if we have only one candidate, set the case to that candidate and then call this recursively
-                if (poss.length == 1) {
-                    board.setNumber(coordinate, poss[0]);
-                    board.printBoard();
-                    return true;
-                }
-            }
+    //solve the board with the techniques and guess when they get stuck, returns false if the board has no solution
+    public boolean solve () {
+        metrics = scheduler.beginSolve();
+        guesses = 0;
+        try {
+            return solveWithSearch();
+        } finally {
+            scheduler.endSolve(metrics);
         }
-        return false;
     }
 
-    //the second technique is that if one number can only be at one spot, it has to be in
-    //said spot
-    private boolean uniqueCandidate () {
-        return board.uniqueCandidate();
+    public SolveMetrics getMetrics () {
+        return metrics;
     }
 
-    //third technique clear rows and columns using dependencies
-    private boolean blockInteraction () {
-        if (board.recursive == 400) {
-            System.out.println();
+    public long getGuesses () {
+        return guesses;
+    }
+
+    private boolean solveWithSearch () {
+        solveCycle();
+        if (board.isSolved()) {
+            return true;
+        }
+        SudokuBoard solution = search(board);
+        if (solution == null) {
+            return false;
         }
-        return board.blockInteractions();
+        //the listener of the board hears about the numbers the search filled in
+        String before = board.toLine();
+        board.copyFrom(solution);
+        for (int i = 0; i < before.length(); i++) {
+            if (before.charAt(i) == '.') {
+                board.getListener().placed(board, i, board.getNumber(i));
+            }
+        }
+        return true;
     }
 
-    //fourth technique using naked subsets
-    private boolean subset () {
-        return board.subset();
+    //brute force, try every possibility of the case with the fewest of them on a copy of the board
+    //and let the techniques propagate each guess before going deeper
+    private SudokuBoard search (SudokuBoard state) {
+        if (state.hasContradiction()) {
+            return null;
+        }
+        if (state.isSolved()) {
+            return state;
+        }
+        int guess = state.fewestPossIndex();
+        //a full board that is not solved breaks a rule
+        if (guess == -1) {
+            return null;
+        }
+        for (int mask = state.getPossMask(guess); mask != 0; mask &= mask - 1) {
+            guesses++;
+            if (metrics != null) {
+                metrics.guessed();
+            }
+            SudokuBoard child = new SudokuBoard(state);
+            child.setNumber(guess, SudokuBoard.lowestPoss(mask));
+            new SudokuSolver(child, false, scheduler).solveCycle();
+            SudokuBoard solution = search(child);
+            if (solution != null) {
+                return solution;
+            }
+        }
+        return null;
     }
 
+    //this method is the cycle from least complex technique to most complex
+    //after every step we start again from the least complex one, until every technique is stuck
+    public void solveCycle () {
+        scheduler.run(board);
+    }
 
-    public static void main (String[] args) {
+    public static void main (String[] args) throws IOException {
+        //batch mode streams one puzzle per line instead of solving a single board
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchSolver.main(args);
+            return;
+        }
+        //generator mode writes new puzzles instead of solving one
+        if (args.length > 0 && args[0].equals("--generate")) {
+            PuzzleGenerator.main(args);
+            return;
+        }
+        //converts between puzzle lines and the packed binary format
+        if (args.length > 0 && args[0].equals("--pack")) {
+            PackedPuzzleWriter.main(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--unpack")) {
+            PackedPuzzleReader.main(args);
+            return;
+        }
+        //a single hard puzzle searched on every processor, only the solved board is printed
+        if (args.length > 0 && args[0].equals("--parallel")) {
+            SudokuBoard board = new SudokuBoard(new Scanner(System.in).nextLine().trim());
+            if (!new ParallelSolver().solve(board)) {
+                System.out.println("no solution");
+            }
+            board.printBoard();
+            return;
+        }
         Tuple[][] empty = new Tuple[9][];
 //        SudokuBoard mySudokuBoard = new SudokuBoard(empty);
         Scanner reader = new Scanner(System.in);
@@ -89,6 +155,6 @@ public class SudokuSolver {
         SudokuBoard mySudokuBoard = new SudokuBoard(reader.nextLine());
         mySudokuBoard.printBoard();
         SudokuSolver monkey = new SudokuSolver(mySudokuBoard);
-        monkey.solveCycle();
+        monkey.solve();
     }
 }
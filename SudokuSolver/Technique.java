@@ -0,0 +1,11 @@
+//a deductive technique that the solver can apply to a board
+public interface Technique {
+    //the name used when printing or reporting on the technique
+    String getName ();
+
+    //relative cost of one application, the scheduler runs cheaper techniques first
+    int getCost ();
+
+    //apply the technique once to the board, returns true only if it filled in a number or removed a possibility
+    boolean apply (SudokuBoard board);
+}
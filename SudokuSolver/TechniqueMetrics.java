@@ -0,0 +1,194 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+//adds up the SolveMetrics of every finished solve, any number of threads can record at once
+//attach it to the schedulers with TechniqueScheduler.setMetrics, without it nothing gets measured
+public class TechniqueMetrics {
+    //the two text formats the totals can be written in
+    public enum Format {
+        JSON,
+        //the text exposition format a Prometheus server scrapes
+        PROMETHEUS
+    }
+
+    private final ConcurrentHashMap<String, Counters> techniques = new ConcurrentHashMap<>();
+    //technique names in the order they were first seen, so the output keeps the cost order
+    private final List<String> order = new CopyOnWriteArrayList<>();
+    private final LongAdder solves = new LongAdder();
+    private final LongAdder solveNanos = new LongAdder();
+    private final LongAdder guesses = new LongAdder();
+
+    //the totals of one technique
+    private static class Counters {
+        final LongAdder invocations = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder placements = new LongAdder();
+        final LongAdder eliminations = new LongAdder();
+    }
+
+    public void record (SolveMetrics solve) {
+        solves.increment();
+        solveNanos.add(Math.max(0, solve.getSolveNanos()));
+        guesses.add(solve.getGuesses());
+        for (String name : solve.getTechniques()) {
+            Counters counters = counters(name);
+            counters.invocations.add(solve.getInvocations(name));
+            counters.nanos.add(solve.getNanos(name));
+            counters.placements.add(solve.getPlacements(name));
+            counters.eliminations.add(solve.getEliminations(name));
+        }
+    }
+
+    private Counters counters (String name) {
+        Counters counters = techniques.get(name);
+        if (counters != null) {
+            return counters;
+        }
+        return techniques.computeIfAbsent(name, key -> {
+            order.add(key);
+            return new Counters();
+        });
+    }
+
+    //region Totals
+    public long getSolves () {
+        return solves.sum();
+    }
+
+    public long getSolveNanos () {
+        return solveNanos.sum();
+    }
+
+    public long getGuesses () {
+        return guesses.sum();
+    }
+
+    //the names of every technique recorded so far
+    public List<String> getTechniques () {
+        return List.copyOf(order);
+    }
+
+    public long getInvocations (String technique) {
+        return find(technique).invocations.sum();
+    }
+
+    public long getNanos (String technique) {
+        return find(technique).nanos.sum();
+    }
+
+    public long getPlacements (String technique) {
+        return find(technique).placements.sum();
+    }
+
+    public long getEliminations (String technique) {
+        return find(technique).eliminations.sum();
+    }
+
+    private Counters find (String technique) {
+        Counters counters = techniques.get(technique);
+        if (counters == null) {
+            throw new IllegalArgumentException("No technique named " + technique);
+        }
+        return counters;
+    }
+    //endregion
+
+    //region Output
+    //the totals so far, every counter is read separately so a dump taken while solving is only roughly consistent
+    public String format (Format format) {
+        return format == Format.JSON ? toJson() : toPrometheus();
+    }
+
+    public String toJson () {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"solves\":").append(getSolves())
+                .append(",\"solveSeconds\":").append(seconds(getSolveNanos()))
+                .append(",\"guesses\":").append(getGuesses())
+                .append(",\"techniques\":{");
+        boolean first = true;
+        for (String name : order) {
+            Counters counters = techniques.get(name);
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(escapeJson(name)).append("\":{")
+                    .append("\"invocations\":").append(counters.invocations.sum())
+                    .append(",\"seconds\":").append(seconds(counters.nanos.sum()))
+                    .append(",\"placements\":").append(counters.placements.sum())
+                    .append(",\"eliminations\":").append(counters.eliminations.sum())
+                    .append('}');
+        }
+        return json.append("}}\n").toString();
+    }
+
+    public String toPrometheus () {
+        StringBuilder text = new StringBuilder();
+        counter(text, "sudoku_solves_total", "Puzzles solved with the techniques.");
+        text.append("sudoku_solves_total ").append(getSolves()).append('\n');
+        counter(text, "sudoku_solve_seconds_total", "Wall time spent solving.");
+        text.append("sudoku_solve_seconds_total ").append(seconds(getSolveNanos())).append('\n');
+        counter(text, "sudoku_guesses_total", "Numbers guessed by the search once the techniques were stuck.");
+        text.append("sudoku_guesses_total ").append(getGuesses()).append('\n');
+        techniqueCounter(text, "sudoku_technique_invocations_total", "Times each technique was applied.",
+                counters -> String.valueOf(counters.invocations.sum()));
+        techniqueCounter(text, "sudoku_technique_seconds_total", "Wall time spent in each technique.",
+                counters -> seconds(counters.nanos.sum()));
+        techniqueCounter(text, "sudoku_technique_placements_total", "Numbers filled in by each technique.",
+                counters -> String.valueOf(counters.placements.sum()));
+        techniqueCounter(text, "sudoku_technique_eliminations_total", "Possibilities removed by each technique.",
+                counters -> String.valueOf(counters.eliminations.sum()));
+        return text.toString();
+    }
+
+    //one line per technique, labelled with its name
+    private void techniqueCounter (StringBuilder text, String metric, String help, Function<Counters, String> value) {
+        counter(text, metric, help);
+        for (String name : order) {
+            text.append(metric).append("{technique=\"").append(escapePrometheus(name)).append("\"} ")
+                    .append(value.apply(techniques.get(name))).append('\n');
+        }
+    }
+
+    private static void counter (StringBuilder text, String metric, String help) {
+        text.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(metric).append(" counter\n");
+    }
+
+    private static String seconds (long nanos) {
+        return String.format(Locale.ROOT, "%.6f", nanos / 1e9);
+    }
+
+    private static String escapeJson (String name) {
+        return name.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String escapePrometheus (String name) {
+        return name.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    //write the totals next to the file and move them over it, so readers never see half a dump
+    public void writeTo (Path file, Format format) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(format(format));
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    //endregion
+}
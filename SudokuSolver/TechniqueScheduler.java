@@ -0,0 +1,168 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+//runs the registered techniques on a board from the cheapest to the most expensive
+//after any progress it goes back to the cheapest one, so expensive techniques only run once the cheap ones are stuck
+//in adaptive mode it also measures how many possibilities each technique removes per microsecond
+//and reorders them every so often, the scheduler keeps state so use one per thread
+//with metrics attached it records what every technique did during each solve
+public class TechniqueScheduler {
+    //how many successful steps between two reorders in adaptive mode
+    static final int REORDER_EVERY = 256;
+
+    private Slot[] order = new Slot[0];
+    private boolean adaptive = false;
+    private int stepsSinceReorder = 0;
+    //where finished solves are added up, and the solve being recorded right now
+    private TechniqueMetrics metrics = null;
+    private SolveMetrics current = null;
+
+    //a registered technique and what we measured about it
+    private static class Slot {
+        final Technique technique;
+        //position in the registration order, where its counts go in SolveMetrics
+        final int id;
+        long calls = 0;
+        long nanos = 0;
+        long eliminations = 0;
+
+        Slot (Technique technique, int id) {
+            this.technique = technique;
+            this.id = id;
+        }
+
+        //possibilities removed per microsecond, techniques that never ran go last
+        double rate () {
+            if (calls == 0) {
+                return -1;
+            }
+            return eliminations / Math.max(1.0, nanos / 1000.0);
+        }
+    }
+
+    //a scheduler with the basic techniques in cost order
+    public static TechniqueScheduler standard () {
+        TechniqueScheduler scheduler = new TechniqueScheduler();
+        for (BasicTechnique technique : BasicTechnique.values()) {
+            scheduler.register(technique);
+        }
+        return scheduler;
+    }
+
+    //a scheduler with only the sole and unique candidates, the cheapest way to follow a guess through when searching
+    public static TechniqueScheduler propagation () {
+        TechniqueScheduler scheduler = new TechniqueScheduler();
+        scheduler.register(BasicTechnique.SOLE_CANDIDATE);
+        scheduler.register(BasicTechnique.UNIQUE_CANDIDATE);
+        return scheduler;
+    }
+
+    //add a technique after every technique that does not cost more
+    public void register (Technique technique) {
+        int index = 0;
+        while (index < order.length && order[index].technique.getCost() <= technique.getCost()) {
+            index++;
+        }
+        Slot[] newOrder = new Slot[order.length + 1];
+        System.arraycopy(order, 0, newOrder, 0, index);
+        newOrder[index] = new Slot(technique, order.length);
+        System.arraycopy(order, index, newOrder, index + 1, order.length - index);
+        order = newOrder;
+    }
+
+    //when adaptive, the techniques that remove the most possibilities per microsecond run first
+    public void setAdaptive (boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    //every solve started with beginSolve gets added to the metrics, null stops measuring
+    public void setMetrics (TechniqueMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public TechniqueMetrics getMetrics () {
+        return metrics;
+    }
+
+    //start recording the steps of a solve, returns null when no metrics are attached
+    public SolveMetrics beginSolve () {
+        if (metrics == null) {
+            current = null;
+            return null;
+        }
+        String[] names = new String[order.length];
+        for (Slot slot : order) {
+            names[slot.id] = slot.technique.getName();
+        }
+        current = new SolveMetrics(names);
+        return current;
+    }
+
+    //stop recording and add the solve to the metrics
+    public void endSolve (SolveMetrics solve) {
+        current = null;
+        if (solve != null) {
+            solve.finish();
+            if (metrics != null) {
+                metrics.record(solve);
+            }
+        }
+    }
+
+    //the techniques in the order they are currently tried
+    public List<Technique> getOrder () {
+        List<Technique> techniques = new ArrayList<>();
+        for (Slot slot : order) {
+            techniques.add(slot.technique);
+        }
+        return techniques;
+    }
+
+    //apply the first technique that makes progress, returns false when every technique is stuck
+    public boolean step (SudokuBoard board) {
+        SolveListener listener = board.getListener();
+        for (Slot slot : order) {
+            boolean progress;
+            listener.techniqueStarted(board, slot.technique);
+            if (adaptive || current != null) {
+                long eliminated = board.getEliminations();
+                long placed = board.getPlacements();
+                long start = System.nanoTime();
+                progress = slot.technique.apply(board);
+                long nanos = System.nanoTime() - start;
+                eliminated = board.getEliminations() - eliminated;
+                slot.nanos += nanos;
+                slot.eliminations += eliminated;
+                slot.calls++;
+                if (current != null) {
+                    current.record(slot.id, nanos, board.getPlacements() - placed, eliminated);
+                }
+            } else {
+                progress = slot.technique.apply(board);
+            }
+            listener.techniqueFinished(board, slot.technique, progress);
+            if (progress) {
+                if (adaptive && ++stepsSinceReorder >= REORDER_EVERY) {
+                    reorder();
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //keep applying techniques until they are all stuck
+    public void run (SudokuBoard board) {
+        while (step(board)) {
+            //every step already did its work
+        }
+    }
+
+    //sort by measured rate, the sort is stable so ties keep their cost order
+    private void reorder () {
+        stepsSinceReorder = 0;
+        Arrays.sort(order, Comparator.comparingDouble(Slot::rate).reversed());
+    }
+}
@@ -0,0 +1,32 @@
+//the coordinates of a case, x is the column and y the row, both counted from 0
+public class Tuple {
+    public final int x;
+    public final int y;
+
+    public Tuple (int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    //reads the two digits of an input like "3 4" or "3,4", the column first
+    public Tuple (String input) {
+        this(digit(input, 0), digit(input, input.length() - 1));
+    }
+
+    private static int digit (String input, int at) {
+        if (input.length() < 2 || !Character.isDigit(input.charAt(at))) {
+            throw new IllegalArgumentException("Must input the column and the row as two digits");
+        }
+        return input.charAt(at) - '0';
+    }
+
+    //check if both tuples point at the same case
+    public boolean equivTo (Tuple other) {
+        return other != null && other.x == x && other.y == y;
+    }
+
+    @Override
+    public String toString () {
+        return x + " " + y;
+    }
+}
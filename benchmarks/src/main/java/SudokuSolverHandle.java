@@ -0,0 +1,39 @@
+import benchmarks.SolverHandle;
+
+//the benchmarks' way into the solver, see SolverHandle
+public class SudokuSolverHandle implements SolverHandle {
+    @Override
+    public Object newBoard (String puzzle) {
+        return new SudokuBoard(puzzle);
+    }
+
+    @Override
+    public Object copy (Object board) {
+        return new SudokuBoard((SudokuBoard) board);
+    }
+
+    @Override
+    public void firstPurge (Object board) {
+        ((SudokuBoard) board).firstPurge();
+    }
+
+    @Override
+    public boolean uniqueCandidate (Object board) {
+        return ((SudokuBoard) board).uniqueCandidate();
+    }
+
+    @Override
+    public boolean blockInteractions (Object board) {
+        return ((SudokuBoard) board).blockInteractions();
+    }
+
+    @Override
+    public boolean subset (Object board) {
+        return ((SudokuBoard) board).subset();
+    }
+
+    @Override
+    public void solveCycle (Object board) {
+        new SudokuSolver((SudokuBoard) board, false).solveCycle();
+    }
+}
@@ -0,0 +1,45 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//building a board from its 81 character line, going through every puzzle of the set in turn
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    private static final SolverHandle SOLVER = SolverHandle.load();
+
+    @Param({"easy", "medium", "hard", "seventeen"})
+    public String set;
+
+    private String[] puzzles;
+    private int next;
+
+    @Setup
+    public void load () {
+        puzzles = Puzzles.load(set);
+        next = 0;
+    }
+
+    @Benchmark
+    public Object constructor () {
+        String puzzle = puzzles[next];
+        next = next + 1 == puzzles.length ? 0 : next + 1;
+        return SOLVER.newBoard(puzzle);
+    }
+}
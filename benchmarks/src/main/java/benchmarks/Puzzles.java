@@ -0,0 +1,37 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+//the bundled puzzle sets, one 81 character puzzle per line
+//easy: sole and unique candidates are enough, medium: needs block interactions or subsets,
+//hard: needs fish, wings or chains, and a few of them still need the search, seventeen: puzzles with only 17 clues
+final class Puzzles {
+    private Puzzles () {
+    }
+
+    static String[] load (String set) {
+        InputStream in = Puzzles.class.getResourceAsStream("/puzzles/" + set + ".txt");
+        if (in == null) {
+            throw new IllegalArgumentException("No puzzle set named " + set);
+        }
+        List<String> puzzles = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    puzzles.add(line.trim());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return puzzles.toArray(new String[0]);
+    }
+}
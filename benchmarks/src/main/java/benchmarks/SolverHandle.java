@@ -0,0 +1,32 @@
+package benchmarks;
+
+//JMH cannot generate code for classes in the default package, and a named package cannot import them,
+//so the benchmarks reach the solver through this interface, implemented by SudokuSolverHandle in the default package
+//boards are passed around as Object for the same reason
+public interface SolverHandle {
+    //the one implementation, loaded by name
+    static SolverHandle load () {
+        try {
+            return (SolverHandle) Class.forName("SudokuSolverHandle").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("SudokuSolverHandle is missing from the classpath", e);
+        }
+    }
+
+    //SudokuBoard(String), this includes the first purge
+    Object newBoard (String puzzle);
+
+    //SudokuBoard(SudokuBoard)
+    Object copy (Object board);
+
+    void firstPurge (Object board);
+
+    boolean uniqueCandidate (Object board);
+
+    boolean blockInteractions (Object board);
+
+    boolean subset (Object board);
+
+    //SudokuSolver.solveCycle without printing
+    void solveCycle (Object board);
+}
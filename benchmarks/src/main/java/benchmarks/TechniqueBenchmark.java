@@ -0,0 +1,89 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//one pass of each technique, and a full solve cycle, on a fresh copy of a constructed board
+//a technique changes the board it runs on, so every invocation copies a constructed board first, inside the measured
+//method since a setup per invocation distorts timings of a few microseconds, the copy benchmark measures the copy alone
+//so its time and its allocations can be subtracted from the others, the techniques themselves do not allocate
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TechniqueBenchmark {
+    private static final SolverHandle SOLVER = SolverHandle.load();
+
+    @Param({"easy", "medium", "hard", "seventeen"})
+    public String set;
+
+    //every puzzle of the set right after construction
+    private Object[] constructed;
+    private int next;
+
+    @Setup
+    public void load () {
+        String[] puzzles = Puzzles.load(set);
+        constructed = new Object[puzzles.length];
+        for (int i = 0; i < puzzles.length; i++) {
+            constructed[i] = SOLVER.newBoard(puzzles[i]);
+        }
+        next = 0;
+    }
+
+    //a copy of the next constructed board of the set
+    private Object nextBoard () {
+        Object board = SOLVER.copy(constructed[next]);
+        next = next + 1 == constructed.length ? 0 : next + 1;
+        return board;
+    }
+
+    //the baseline of the other benchmarks, they all start with the same copy
+    @Benchmark
+    public Object copy () {
+        return nextBoard();
+    }
+
+    //the board was already purged by its constructor, so this times a full purge pass over a settled board
+    @Benchmark
+    public Object firstPurge () {
+        Object board = nextBoard();
+        SOLVER.firstPurge(board);
+        return board;
+    }
+
+    @Benchmark
+    public boolean uniqueCandidate () {
+        return SOLVER.uniqueCandidate(nextBoard());
+    }
+
+    @Benchmark
+    public boolean blockInteractions () {
+        return SOLVER.blockInteractions(nextBoard());
+    }
+
+    @Benchmark
+    public boolean subset () {
+        return SOLVER.subset(nextBoard());
+    }
+
+    @Benchmark
+    public Object solveCycle () {
+        Object board = nextBoard();
+        SOLVER.solveCycle(board);
+        return board;
+    }
+}